@@ -0,0 +1,40 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede a geração de tabuleiros: criar o tabuleiro, colocar as bombas e calcular as contagens.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GenerationBenchmark {
+    @Param({"9", "100", "1000"})
+    public int size; //Linhas e colunas do tabuleiro
+
+    @Param({"0.12", "0.5", "0.99"})
+    public double density; //Fração de células com bomba
+
+    private long seed; //Semente do próximo tabuleiro
+
+    @Benchmark
+    public Game generate() {
+        Game game = new Game(size, size, (int) (size * size * density));
+        game.initializeGame();
+        game.fillBombs(seed++);
+        return game;
+    }
+}
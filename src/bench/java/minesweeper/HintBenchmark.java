@@ -0,0 +1,62 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede o custo das dicas no fim do jogo, quando quase todas as células sem bomba já estão abertas
+ * (o caso em que escolher células ao acaso até acertar era mais lento).
+ * Cada iteração prepara um tabuleiro novo e mede o tempo de {@link #HINTS} dicas seguidas.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = HintBenchmark.HINTS)
+@Measurement(iterations = 20, batchSize = HintBenchmark.HINTS)
+@Fork(1)
+public class HintBenchmark {
+    static final int HINTS = 100; //Dicas por iteração
+
+    @Param({"100", "1000"})
+    public int size; //Linhas e colunas do tabuleiro
+
+    @Param({"0.12", "0.3"})
+    public double density; //Fração de células com bomba
+
+    @Param({"10"})
+    public int keepOneIn; //Fica fechada uma em cada keepOneIn células sem bomba
+
+    private Game game; //Tabuleiro no fim do jogo
+    private long seed; //Semente do próximo tabuleiro
+
+    @Setup(Level.Iteration)
+    public void lateGame() {
+        game = new Game(size, size, (int) (size * size * density));
+        game.initializeGame();
+        game.fillBombs(seed++);
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (!game.hasBomb(row, col) && (row * size + col) % keepOneIn != 0) {
+                    game.revealAround(row, col);
+                }
+            }
+        }
+        game.hint(); //constrói o conjunto de dicas fora da medição
+    }
+
+    @Benchmark
+    public MoveResult hint() {
+        return game.hint();
+    }
+}
@@ -0,0 +1,59 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede o cálculo das probabilidades do comando /hint ({@link Probabilities}) a meio de um jogo,
+ * depois de o {@link Solver} fazer algumas rondas de jogadas. O objetivo é ficar abaixo de 50 ms no modo expert.
+ * Cada iteração prepara um tabuleiro novo.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 10)
+@Measurement(iterations = 50)
+@Fork(1)
+public class ProbabilityBenchmark {
+    @Param({"16x30x99", "100x100x2000"})
+    public String board; //Linhas, colunas e bombas
+
+    @Param({"5"})
+    public int rounds; //Rondas do solver antes da medição
+
+    private Game game; //Jogo a meio
+    private long seed; //Semente do próximo tabuleiro
+
+    @Setup(Level.Iteration)
+    public void midGame() {
+        String[] parts = board.split("x");
+        int rows = Integer.parseInt(parts[0]);
+        int cols = Integer.parseInt(parts[1]);
+        do {
+            game = new Game(rows, cols, Integer.parseInt(parts[2]));
+            game.initializeGame();
+            game.fillBombs(seed++);
+            Solver solver = new Solver(game);
+            game.open(rows / 2, cols / 2);
+            for (int i = 0; i < rounds && !game.isGameOver(); i++) {
+                solver.step();
+            }
+        } while (game.isGameOver());
+    }
+
+    @Benchmark
+    public Probabilities probabilities() {
+        return Probabilities.of(game);
+    }
+}
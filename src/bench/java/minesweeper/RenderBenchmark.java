@@ -0,0 +1,61 @@
+package minesweeper;
+
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Mede o {@link BoardRenderer}: um frame completo e um frame diferencial sem alterações.
+ * Os frames são escritos para um OutputStream que descarta os bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RenderBenchmark {
+    @Param({"9", "100", "1000"})
+    public int size; //Linhas e colunas do tabuleiro
+
+    private Game game; //Tabuleiro parcialmente aberto
+    private BoardRenderer full; //Renderer dos frames completos
+    private BoardRenderer diff; //Renderer dos frames diferenciais
+
+    @Setup
+    public void board() {
+        game = new Game(size, size, size * size / 6);
+        game.initializeGame();
+        game.fillBombs(1L);
+        for (int row = 0; row < size; row += 7) {
+            for (int col = 0; col < size; col += 5) {
+                if (!game.hasBomb(row, col)) {
+                    game.revealAround(row, col);
+                }
+            }
+        }
+        full = new BoardRenderer(OutputStream.nullOutputStream());
+        diff = new BoardRenderer(OutputStream.nullOutputStream());
+        diff.renderChanges(game);
+    }
+
+    @Benchmark
+    public void fullFrame() {
+        full.render(game);
+    }
+
+    @Benchmark
+    public void diffFrame() {
+        diff.renderChanges(game);
+    }
+}
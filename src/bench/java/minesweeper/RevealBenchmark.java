@@ -0,0 +1,94 @@
+package minesweeper;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Mede a revelação de células: abrir o tabuleiro inteiro, a pior cascata (um tabuleiro sem bombas aberto
+ * a partir do centro) e, para comparação, a contagem das bombas vizinhas de todas as células por
+ * varrimento das 8 vizinhas contra a leitura da grelha pré-calculada.
+ * Cada invocação usa um tabuleiro novo, criado fora da medição.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class RevealBenchmark {
+    @Param({"100", "1000"})
+    public int size; //Linhas e colunas do tabuleiro
+
+    @Param({"0.12", "0.2"})
+    public double density; //Fração de células com bomba no tabuleiro completo
+
+    private Game game; //Tabuleiro com bombas
+    private Game empty; //Tabuleiro sem bombas, para a pior cascata
+    private long seed; //Semente do próximo tabuleiro
+
+    @Setup(Level.Invocation)
+    public void newBoards() {
+        game = new Game(size, size, (int) (size * size * density));
+        game.initializeGame();
+        game.fillBombs(seed++);
+        empty = new Game(size, size, 0);
+        empty.initializeGame();
+        empty.fillBombs(seed);
+    }
+
+    @Benchmark
+    public int fullBoardReveal() {
+        int opened = 0;
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                if (!game.hasBomb(row, col)) {
+                    opened += game.revealAround(row, col);
+                }
+            }
+        }
+        return opened;
+    }
+
+    @Benchmark
+    public int worstCaseCascade() {
+        return empty.revealAround(size / 2, size / 2);
+    }
+
+    @Benchmark
+    public void countsByLookup(Blackhole blackhole) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                blackhole.consume(game.countBombs(row, col));
+            }
+        }
+    }
+
+    @Benchmark
+    public void countsByScan(Blackhole blackhole) {
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int count = 0;
+                for (int i = row - 1; i <= row + 1; i++) {
+                    for (int j = col - 1; j <= col + 1; j++) {
+                        if ((i != row || j != col) && i >= 0 && i < size && j >= 0 && j < size && game.hasBomb(i, j)) {
+                            count++;
+                        }
+                    }
+                }
+                blackhole.consume(count);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.SplittableRandom;
+
+/**
+ * Teste de carga do {@link GameServer}: abre muitas ligações ao mesmo tempo, cada uma com a sua sessão,
+ * e joga jogadas aleatórias durante um tempo fixo, medindo o débito e a latência das respostas.
+ * Cada ligação tem sempre um único pedido em curso. Quando um jogo acaba é pedido um novo.
+ * Executar com o servidor a correr: java ServerLoadBenchmark [host] [porta] [ligações] [segundos]
+ */
+public class ServerLoadBenchmark {
+    private static final String NEW_GAME = "/new 16 30 99\n"; //Tabuleiro expert
+
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7070;
+        int clients = args.length > 2 ? Integer.parseInt(args[2]) : 10000;
+        int seconds = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        Selector selector = Selector.open();
+        SplittableRandom random = new SplittableRandom(1);
+        for (int i = 0; i < clients; i++) {
+            SocketChannel channel = SocketChannel.open();
+            channel.configureBlocking(false);
+            channel.connect(new InetSocketAddress(host, port));
+            channel.register(selector, SelectionKey.OP_CONNECT, new Client(random.split()));
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(4096);
+        int connected = 0;
+        long responses = 0;
+        long latencyTotal = 0;
+        long maxLatency = 0;
+        long start = System.nanoTime();
+        long end = start + seconds * 1_000_000_000L;
+        while (System.nanoTime() < end) {
+            selector.select(100);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                SocketChannel channel = (SocketChannel) key.channel();
+                Client client = (Client) key.attachment();
+                if (key.isConnectable()) {
+                    channel.finishConnect();
+                    connected++;
+                    key.interestOps(SelectionKey.OP_READ);
+                    client.send(channel, NEW_GAME);
+                    continue;
+                }
+                buffer.clear();
+                if (channel.read(buffer) < 0) {
+                    key.cancel();
+                    continue;
+                }
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    if (b != '\n') {
+                        client.line.append((char) b);
+                        continue;
+                    }
+                    long latency = System.nanoTime() - client.sentAt;
+                    responses++;
+                    latencyTotal += latency;
+                    maxLatency = Math.max(maxLatency, latency);
+                    String reply = client.line.toString();
+                    client.line.setLength(0);
+                    if (reply.equals("WIN") || reply.equals("LOSE") || reply.equals("GAME_OVER")) {
+                        client.send(channel, NEW_GAME);
+                    } else {
+                        client.send(channel, client.randomMove());
+                    }
+                }
+            }
+        }
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d/%d clients connected%n", connected, clients);
+        System.out.printf("%d responses in %.1f s: %.0f req/s, mean latency %.2f ms, max %.1f ms%n",
+                responses, elapsed, responses / elapsed, latencyTotal / 1e6 / Math.max(responses, 1), maxLatency / 1e6);
+    }
+
+    /**
+     * Estado de um cliente: a linha de resposta a ser lida e o instante do último pedido.
+     */
+    private static class Client {
+        private final SplittableRandom random; //Gerador das jogadas deste cliente
+        private final StringBuilder line = new StringBuilder(); //Resposta a ser lida
+        private long sentAt; //Instante do último pedido
+
+        Client(SplittableRandom random) {
+            this.random = random;
+        }
+
+        String randomMove() {
+            char row = (char) ('A' + random.nextInt(16));
+            int col = 1 + random.nextInt(30);
+            return (random.nextInt(8) == 0 ? "/flag " : "/open ") + row + " " + col + "\n";
+        }
+
+        void send(SocketChannel channel, String command) throws IOException {
+            sentAt = System.nanoTime();
+            channel.write(ByteBuffer.wrap(command.getBytes(StandardCharsets.US_ASCII)));
+        }
+    }
+}
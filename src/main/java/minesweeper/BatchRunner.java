@@ -0,0 +1,341 @@
+package minesweeper;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Arrays;
+
+/**
+ * Modo de comandos em lote: lê comandos de um ficheiro ou de um pipe, um por linha, e aplica-os ao motor
+ * uns atrás dos outros, sem desenhar o tabuleiro nem esperar pelo jogador.
+ * <p>
+ * Comandos aceites (as linhas vazias e as começadas por # são ignoradas):
+ * <ul>
+ *   <li>/new &lt;linhas&gt; &lt;colunas&gt; &lt;bombas&gt; [semente] - Começa um jogo novo.</li>
+ *   <li>/open, /flag ou /chord &lt;linha&gt; &lt;coluna&gt; - Faz uma jogada.</li>
+ *   <li>/hint - Revela uma célula sem bomba.</li>
+ *   <li>/board - Desenha o tabuleiro.</li>
+ *   <li>/quit - Pára de ler comandos.</li>
+ * </ul>
+ * A linha pode ser escrita em letras (A, ..., Z, AA, ...) ou em número, e a coluna em número, ambos a começar
+ * em 1 (ver {@link Coordinates}).
+ * <p>
+ * A entrada é lida em blocos para um array de bytes e cada linha é separada em palavras guardando só as suas
+ * posições no array; os comandos são comparados byte a byte e as coordenadas convertidas sem criar Strings,
+ * por isso o ciclo de comandos não aloca memória (só /new cria um jogo e os erros criam a mensagem).
+ * No fim é mostrado um resumo com a quantidade de cada resultado, os comandos por segundo e o tempo total.
+ */
+public class BatchRunner {
+    private static final int BUFFER_SIZE = 64 * 1024; //Tamanho inicial do buffer de leitura
+    private static final int MAX_WORDS = 5; //Palavras lidas por linha; as seguintes tornam o comando inválido
+    private static final int MAX_ERRORS = 20; //Erros mostrados; os seguintes só são contados
+    private static final byte[] NEW = {'/', 'n', 'e', 'w'};
+    private static final byte[] OPEN = {'/', 'o', 'p', 'e', 'n'};
+    private static final byte[] FLAG = {'/', 'f', 'l', 'a', 'g'};
+    private static final byte[] CHORD = {'/', 'c', 'h', 'o', 'r', 'd'};
+    private static final byte[] HINT = {'/', 'h', 'i', 'n', 't'};
+    private static final byte[] BOARD = {'/', 'b', 'o', 'a', 'r', 'd'};
+    private static final byte[] QUIT = {'/', 'q', 'u', 'i', 't'};
+    private static final MoveResult[] RESULTS = MoveResult.values(); //Resultados pela ordem dos contadores
+    private final PrintStream out; //Destino do tabuleiro, dos erros e do resumo
+    private final BoardRenderer renderer; //Desenha o tabuleiro em /board
+    private byte[] buffer = new byte[BUFFER_SIZE]; //Bytes lidos e ainda não processados
+    private final int[] wordStart = new int[MAX_WORDS]; //Início de cada palavra da linha atual no buffer
+    private final int[] wordEnd = new int[MAX_WORDS]; //Fim (exclusive) de cada palavra da linha atual
+    private final long[] counts = new long[RESULTS.length]; //Jogadas com cada resultado
+    private Game game; //Jogo atual, ou null antes do primeiro /new
+    private long lines; //Linhas lidas
+    private long commands; //Comandos executados
+    private long games; //Jogos começados
+    private long errors; //Linhas com comandos inválidos
+    private long nanos; //Tempo gasto a ler e executar os comandos
+    private boolean quit; //Se o valor for true, foi lido /quit
+
+    /**
+     * Cria um executor de comandos.
+     * @param out o destino do tabuleiro, dos erros e do resumo
+     */
+    public BatchRunner(OutputStream out) {
+        this.out = out instanceof PrintStream ? (PrintStream) out : new PrintStream(out, true);
+        this.renderer = new BoardRenderer(out);
+    }
+
+    /**
+     * Define o jogo onde as jogadas são aplicadas até ao próximo /new.
+     * @param game o jogo, com as bombas colocadas
+     */
+    public void setGame(Game game) {
+        this.game = game;
+        games++;
+    }
+
+    /**
+     * @return o jogo atual, ou null se ainda não há jogo
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return a quantidade de comandos executados
+     */
+    public long getCommands() {
+        return commands;
+    }
+
+    /**
+     * @return a quantidade de linhas com comandos inválidos
+     */
+    public long getErrors() {
+        return errors;
+    }
+
+    /**
+     * @param result um resultado
+     * @return a quantidade de jogadas com esse resultado
+     */
+    public long getCount(MoveResult result) {
+        return counts[result.ordinal()];
+    }
+
+    /**
+     * Lê e executa os comandos até ao fim da entrada ou até /quit.
+     * @param in a entrada (não é fechada)
+     * @throws IOException se não for possível ler a entrada
+     */
+    public void run(InputStream in) throws IOException {
+        long begin = System.nanoTime();
+        int start = 0; //Início da linha atual
+        int end = 0; //Fim dos bytes lidos
+        int scanned = 0; //Bytes já procurados sem encontrar o fim da linha
+        boolean eof = false;
+        while (!quit) {
+            int newline = -1;
+            for (int i = scanned; i < end; i++) {
+                if (buffer[i] == '\n') {
+                    newline = i;
+                    break;
+                }
+            }
+            if (newline >= 0) {
+                execute(start, newline);
+                start = newline + 1;
+                scanned = start;
+                continue;
+            }
+            if (eof) {
+                if (start < end) {
+                    execute(start, end);
+                }
+                break;
+            }
+            //Move a linha incompleta para o início do buffer e lê o bloco seguinte
+            System.arraycopy(buffer, start, buffer, 0, end - start);
+            end -= start;
+            start = 0;
+            scanned = end;
+            if (end == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = in.read(buffer, end, buffer.length - end);
+            if (read < 0) {
+                eof = true;
+            } else {
+                end += read;
+            }
+        }
+        nanos += System.nanoTime() - begin;
+    }
+
+    /**
+     * Separa uma linha em palavras e executa o comando.
+     * @param from a posição do primeiro byte da linha
+     * @param to a posição do fim da linha
+     */
+    private void execute(int from, int to) {
+        lines++;
+        int words = 0;
+        int i = from;
+        while (true) {
+            while (i < to && isSpace(buffer[i])) {
+                i++;
+            }
+            if (i == to) {
+                break;
+            }
+            if (words == MAX_WORDS) {
+                error("too many arguments");
+                return;
+            }
+            wordStart[words] = i;
+            while (i < to && !isSpace(buffer[i])) {
+                i++;
+            }
+            wordEnd[words++] = i;
+        }
+        if (words == 0 || buffer[wordStart[0]] == '#') {
+            return;
+        }
+        if (is(NEW)) {
+            newGame(words);
+            return;
+        }
+        if (is(QUIT)) {
+            quit = true;
+            return;
+        }
+        if (game == null) {
+            error("no game, use /new");
+            return;
+        }
+        if (is(BOARD)) {
+            renderer.render(game);
+            commands++;
+            return;
+        }
+        if (is(HINT)) {
+            if (words != 1) {
+                error("use /hint");
+                return;
+            }
+            count(game.hint());
+            return;
+        }
+        boolean open = is(OPEN);
+        boolean flag = !open && is(FLAG);
+        if (!open && !flag && !is(CHORD)) {
+            error("unknown command");
+            return;
+        }
+        if (words != 3) {
+            error("use /open, /flag or /chord <row> <column>");
+            return;
+        }
+        int row = Coordinates.parseRow(buffer, wordStart[1], wordEnd[1]);
+        int col = Coordinates.parseColumn(buffer, wordStart[2], wordEnd[2]);
+        count(open ? game.open(row, col) : flag ? game.flag(row, col) : game.chord(row, col));
+    }
+
+    /**
+     * Executa /new, começando um jogo com as bombas colocadas a partir da semente (aleatória se faltar).
+     */
+    private void newGame(int words) {
+        if (words < 4) {
+            error("use /new <rows> <columns> <bombs> [seed]");
+            return;
+        }
+        long rows = parseLong(1);
+        long cols = parseLong(2);
+        long bombs = parseLong(3);
+        long seed = words > 4 ? parseLong(4) : System.nanoTime();
+        if (rows < 0 || cols < 0 || bombs < 0 || words > 4 && seed < 0 || rows > Integer.MAX_VALUE || cols > Integer.MAX_VALUE
+                || bombs > Integer.MAX_VALUE) {
+            error("use /new <rows> <columns> <bombs> [seed]");
+            return;
+        }
+        Game next;
+        try {
+            next = new Game((int) rows, (int) cols, (int) bombs);
+        } catch (IllegalArgumentException e) {
+            error(e.getMessage());
+            return;
+        }
+        next.initializeGame();
+        next.fillBombs(seed);
+        setGame(next);
+        commands++;
+    }
+
+    /**
+     * Lê uma palavra como número decimal não negativo.
+     * @return o número, ou -1 se a palavra não for um número ou não couber num long
+     */
+    private long parseLong(int word) {
+        long value = 0;
+        for (int i = wordStart[word]; i < wordEnd[word]; i++) {
+            int digit = buffer[i] - '0';
+            if (digit < 0 || digit > 9 || value > (Long.MAX_VALUE - digit) / 10) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * @return verdadeiro se a primeira palavra da linha é o comando dado
+     */
+    private boolean is(byte[] command) {
+        return Arrays.equals(buffer, wordStart[0], wordEnd[0], command, 0, command.length);
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+
+    private void count(MoveResult result) {
+        counts[result.ordinal()]++;
+        commands++;
+    }
+
+    /**
+     * Conta um comando inválido e mostra o erro, até {@value #MAX_ERRORS} erros.
+     */
+    private void error(String message) {
+        errors++;
+        if (errors <= MAX_ERRORS) {
+            out.println("Line " + lines + ": " + message);
+        } else if (errors == MAX_ERRORS + 1) {
+            out.println("Too many errors, no longer showing them.");
+        }
+    }
+
+    /**
+     * @return as células sem bomba abertas no jogo atual, em todas as jogadas
+     */
+    private long openedCells() {
+        return (long) game.getRows() * game.getCols() - game.getAmountBombs() - game.getPositionsWithoutBombs();
+    }
+
+    /**
+     * Mostra a quantidade de cada resultado, os comandos por segundo e o tempo total.
+     */
+    public void printSummary() {
+        out.println("Lines: " + lines + ", commands: " + commands + ", games: " + games + ", errors: " + errors);
+        for (MoveResult result : RESULTS) {
+            if (counts[result.ordinal()] != 0) {
+                out.printf("  %-14s %d%n", result, counts[result.ordinal()]);
+            }
+        }
+        if (game != null) {
+            out.println("Last game: " + (game.isGameOver() ? "over" : "in progress") + ", "
+                    + openedCells() + " cells opened, " + game.getTotalFlags() + " flags left");
+        }
+        out.printf("Time: %.3f ms (%.0f commands/s)%n", nanos / 1e6, nanos == 0 ? 0 : commands * 1e9 / nanos);
+    }
+
+    /**
+     * Executa os comandos de um ficheiro, ou da entrada padrão se não for dado nenhum ficheiro, e mostra o resumo.
+     * Se forem dadas dimensões, o primeiro jogo começa logo com elas e a linha de comandos pode omitir /new.
+     * @param args o ficheiro ("-" para a entrada padrão) e, opcionalmente, linhas, colunas, bombas e semente
+     */
+    public static void main(String[] args) throws IOException {
+        BatchRunner runner = new BatchRunner(System.out);
+        if (args.length >= 4) {
+            Game game = new Game(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+            game.initializeGame();
+            game.fillBombs(args.length > 4 ? Long.parseLong(args[4]) : System.nanoTime());
+            runner.setGame(game);
+        }
+        if (args.length == 0 || args[0].equals("-")) {
+            runner.run(System.in);
+        } else {
+            try (InputStream in = new FileInputStream(args[0])) {
+                runner.run(in);
+            }
+        }
+        runner.printSummary();
+    }
+}
@@ -0,0 +1,292 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reserva de tabuleiros já preparados (bombas colocadas e números calculados), para que começar um jogo
+ * não tenha de esperar pela geração do tabuleiro.
+ * <p>
+ * Há uma reserva limitada por cada tamanho registado (as dificuldades de {@link Preset} pedidas ao criar a
+ * reserva e os tamanhos acrescentados com {@link #add(int, int, int)}). As reservas são repostas por threads em segundo plano, que só
+ * preparam tabuleiros enquanto a reserva tem lugar: quando está cheia param, e voltam quando um jogo é retirado.
+ * Os jogos acabados entregues com {@link #release(Game)} são limpos e reutilizados em vez de se criarem novos
+ * tabuleiros.
+ * <p>
+ * Retirar um jogo de uma reserva com tabuleiros é só tirá-lo de uma fila (hit). Se a reserva estiver vazia, ou se
+ * o tamanho não tiver reserva, o jogo é preparado na hora, como antes (miss). Os hits e misses são contados aqui
+ * e nas {@link Metrics}.
+ */
+public class BoardPool implements Closeable {
+    private static final long MAX_POOL_CELLS = 1L << 24; //Células guardadas no máximo por cada reserva
+    private final int capacity; //Tabuleiros guardados no máximo por cada reserva
+    private final ExecutorService workers; //Threads que repõem as reservas
+    private volatile Pool[] pools = new Pool[0]; //Reservas por tamanho (copiado ao acrescentar)
+    private final LongAdder hits = new LongAdder(); //Jogos entregues já prontos
+    private final LongAdder misses = new LongAdder(); //Jogos preparados na hora
+
+    /**
+     * Dificuldades predefinidas.
+     */
+    public enum Preset {
+        BEGINNER(9, 9, 10),
+        INTERMEDIATE(16, 16, 40),
+        EXPERT(16, 30, 99);
+
+        private final int rows; //Linhas
+        private final int cols; //Colunas
+        private final int amountBombs; //Quantidade de bombas
+
+        Preset(int rows, int cols, int amountBombs) {
+            this.rows = rows;
+            this.cols = cols;
+            this.amountBombs = amountBombs;
+        }
+
+        public int getRows() {
+            return rows;
+        }
+
+        public int getCols() {
+            return cols;
+        }
+
+        public int getAmountBombs() {
+            return amountBombs;
+        }
+    }
+
+    /**
+     * Reserva de um tamanho: os tabuleiros prontos e os jogos acabados à espera de serem reutilizados.
+     */
+    private final class Pool implements Runnable {
+        private final int rows; //Linhas
+        private final int cols; //Colunas
+        private final int amountBombs; //Quantidade de bombas
+        private final ArrayBlockingQueue<Game> ready; //Tabuleiros prontos
+        private final ArrayBlockingQueue<Game> spare; //Jogos acabados, por limpar
+        private final AtomicBoolean refilling = new AtomicBoolean(); //Se uma thread está a repor a reserva
+        private final LongAdder hits = new LongAdder(); //Jogos entregues já prontos
+        private final LongAdder misses = new LongAdder(); //Jogos preparados na hora
+
+        Pool(int rows, int cols, int amountBombs) {
+            this.rows = rows;
+            this.cols = cols;
+            this.amountBombs = amountBombs;
+            int size = (int) Math.max(1, Math.min(capacity, MAX_POOL_CELLS / ((long) rows * cols)));
+            this.ready = new ArrayBlockingQueue<>(size);
+            this.spare = new ArrayBlockingQueue<>(size);
+        }
+
+        boolean matches(int rows, int cols, int amountBombs) {
+            return this.rows == rows && this.cols == cols && this.amountBombs == amountBombs;
+        }
+
+        /**
+         * Pede a uma thread que reponha a reserva, se nenhuma o estiver a fazer.
+         */
+        void refill() {
+            if (ready.remainingCapacity() > 0 && refilling.compareAndSet(false, true)) {
+                try {
+                    workers.execute(this);
+                } catch (RejectedExecutionException e) {
+                    refilling.set(false); //A reserva foi fechada
+                }
+            }
+        }
+
+        /**
+         * Prepara tabuleiros até a reserva ficar cheia, reutilizando primeiro os jogos acabados.
+         */
+        @Override
+        public void run() {
+            try {
+                while (ready.remainingCapacity() > 0) {
+                    Game game = spare.poll();
+                    if (game == null) {
+                        game = new Game(rows, cols, amountBombs);
+                        game.initializeGame();
+                    } else {
+                        game.recycle();
+                    }
+                    game.fillBombs();
+                    if (!ready.offer(game)) {
+                        spare.offer(game);
+                        break;
+                    }
+                }
+            } finally {
+                refilling.set(false);
+            }
+            //Um jogo retirado entre a última verificação e o fim da reposição não pediu nenhuma reposição
+            refill();
+        }
+    }
+
+    /**
+     * Cria as reservas das dificuldades indicadas e começa a enchê-las.
+     * @param capacity os tabuleiros guardados no máximo por cada reserva (menos nos tabuleiros muito grandes)
+     * @param threads o número de threads que repõem as reservas
+     * @param presets as dificuldades que vão ser usadas (outros tamanhos podem ser acrescentados com
+     * {@link #add(int, int, int)})
+     */
+    public BoardPool(int capacity, int threads, Preset... presets) {
+        if (capacity <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Invalid board pool: " + capacity + " boards, " + threads + " threads");
+        }
+        this.capacity = capacity;
+        AtomicInteger count = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "board-pool-" + count.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        for (Preset preset : presets) {
+            add(preset.rows, preset.cols, preset.amountBombs);
+        }
+    }
+
+    /**
+     * Acrescenta uma reserva para um tamanho, se ainda não existir, e começa a enchê-la.
+     * @param rows o número de linhas
+     * @param cols o número de colunas
+     * @param amountBombs o número de bombas
+     * @throws IllegalArgumentException se as dimensões ou o número de bombas não forem válidos
+     */
+    public synchronized void add(int rows, int cols, int amountBombs) {
+        if (find(rows, cols, amountBombs) != null) {
+            return;
+        }
+        new Game(rows, cols, amountBombs); //Valida o tamanho antes de criar a reserva
+        Pool pool = new Pool(rows, cols, amountBombs);
+        Pool[] copy = Arrays.copyOf(pools, pools.length + 1);
+        copy[copy.length - 1] = pool;
+        pools = copy;
+        pool.refill();
+    }
+
+    private Pool find(int rows, int cols, int amountBombs) {
+        for (Pool pool : pools) {
+            if (pool.matches(rows, cols, amountBombs)) {
+                return pool;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Retira um jogo de uma dificuldade predefinida.
+     * @param preset a dificuldade
+     * @return um jogo novo, com as bombas colocadas, ainda sem nome nem cronómetro iniciado
+     */
+    public Game take(Preset preset) {
+        return take(preset.rows, preset.cols, preset.amountBombs);
+    }
+
+    /**
+     * Retira um jogo pronto da reserva do tamanho indicado, ou prepara-o na hora se não houver nenhum pronto.
+     * @param rows o número de linhas
+     * @param cols o número de colunas
+     * @param amountBombs o número de bombas
+     * @return um jogo novo, com as bombas colocadas, ainda sem nome nem cronómetro iniciado
+     * @throws IllegalArgumentException se as dimensões ou o número de bombas não forem válidos
+     */
+    public Game take(int rows, int cols, int amountBombs) {
+        Pool pool = find(rows, cols, amountBombs);
+        Game game = pool == null ? null : pool.ready.poll();
+        if (game != null) {
+            hits.increment();
+            pool.hits.increment();
+            Metrics.POOL_HITS.increment();
+            pool.refill();
+            return game;
+        }
+        misses.increment();
+        Metrics.POOL_MISSES.increment();
+        if (pool != null) {
+            pool.misses.increment();
+            pool.refill();
+        }
+        game = new Game(rows, cols, amountBombs);
+        game.initializeGame();
+        game.fillBombs();
+        return game;
+    }
+
+    /**
+     * Entrega um jogo que já não vai ser usado, para que o seu tabuleiro seja reutilizado num jogo seguinte
+     * do mesmo tamanho. Depois de entregue, o jogo não pode continuar a ser usado por quem o entregou.
+     * Jogos de tamanhos sem reserva, ou que não cabem na reserva, são simplesmente descartados.
+     * @param game o jogo
+     */
+    public void release(Game game) {
+        Pool pool = find(game.getRows(), game.getCols(), game.getAmountBombs());
+        if (pool != null && pool.spare.offer(game)) {
+            pool.refill();
+        }
+    }
+
+    /**
+     * @return os jogos entregues já prontos
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return os jogos que foram preparados na hora
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return a fração dos jogos entregues já prontos, entre 0 e 1
+     */
+    public double getHitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    /**
+     * @param rows o número de linhas
+     * @param cols o número de colunas
+     * @param amountBombs o número de bombas
+     * @return os tabuleiros prontos na reserva do tamanho indicado (0 se não houver reserva)
+     */
+    public int getReady(int rows, int cols, int amountBombs) {
+        Pool pool = find(rows, cols, amountBombs);
+        return pool == null ? 0 : pool.ready.size();
+    }
+
+    /**
+     * @return o estado de cada reserva (tabuleiros prontos, hits e misses), uma por linha
+     */
+    public String report() {
+        StringBuilder report = new StringBuilder(String.format("Board pool: hits %d, misses %d, hit rate %.1f%%",
+                getHits(), getMisses(), getHitRate() * 100));
+        for (Pool pool : pools) {
+            report.append(String.format("%n  %dx%d, %d bombs: %d/%d ready, %d hits, %d misses", pool.rows, pool.cols,
+                    pool.amountBombs, pool.ready.size(), pool.ready.size() + pool.ready.remainingCapacity(),
+                    pool.hits.sum(), pool.misses.sum()));
+        }
+        return report.toString();
+    }
+
+    /**
+     * Para as threads que repõem as reservas. Os jogos continuam a poder ser retirados, preparados na hora.
+     */
+    @Override
+    public void close() {
+        workers.shutdown();
+    }
+}
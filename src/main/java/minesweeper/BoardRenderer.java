@@ -0,0 +1,232 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Classe que desenha o tabuleiro do jogo num OutputStream (normalmente a consola).
+ * Cada frame é montado num único buffer de bytes reutilizado entre frames e escrito com uma só escrita,
+ * em vez de uma chamada a System.out.print por célula.
+ * Também pode enviar apenas as células que mudaram desde o último frame, usando sequências ANSI
+ * para posicionar o cursor.
+ */
+public class BoardRenderer {
+    private static final byte[][] SYMBOL_BYTES = new byte[Game.SYMBOLS.length][]; //Símbolos já codificados em UTF-8
+    private static final byte[] CLEAR_SCREEN = "\033[2J\033[H".getBytes(StandardCharsets.US_ASCII); //Limpa o ecrã
+    private static final int CELL_WIDTH = 3; //Largura de cada célula no ecrã
+    private final OutputStream out; //Destino dos frames
+    private byte[] frame = new byte[4096]; //Buffer do frame, reutilizado entre frames
+    private int length; //Quantidade de bytes usados no buffer
+    private byte[] shown; //Códigos dos símbolos que estão no ecrã (modo diferencial)
+
+    static {
+        for (int i = 0; i < SYMBOL_BYTES.length; i++) {
+            SYMBOL_BYTES[i] = Game.SYMBOLS[i].getBytes(StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Cria um renderer que escreve no destino indicado.
+     * @param out o destino dos frames
+     */
+    public BoardRenderer(OutputStream out) {
+        this.out = out;
+    }
+
+    /**
+     * Desenha o tabuleiro inteiro, com as letras das linhas à direita e os números das colunas em baixo.
+     * @param game o jogo a desenhar
+     */
+    public void render(Engine game) {
+        long start = System.nanoTime();
+        length = 0;
+        appendFrame(game, null);
+        flush();
+        Metrics.render(start, length);
+    }
+
+    /**
+     * Desenha o tabuleiro inteiro com a probabilidade de bomba de cada célula fechada e sem bandeira, em
+     * percentagem: "--" se a célula não tem bomba com certeza, "**" se tem, e de 1 a 99 nos outros casos.
+     * @param game o jogo a desenhar
+     * @param probabilities as probabilidades calculadas para o jogo
+     */
+    public void renderProbabilities(Engine game, Probabilities probabilities) {
+        long start = System.nanoTime();
+        length = 0;
+        appendFrame(game, probabilities);
+        flush();
+        Metrics.render(start, length);
+    }
+
+    /**
+     * Desenha apenas as células que mudaram desde o último frame, posicionando o cursor com sequências ANSI.
+     * O primeiro frame (ou um frame de um tabuleiro com outro tamanho) limpa o ecrã e é desenhado por inteiro.
+     * Só funciona se nada mais for escrito no ecrã entre frames.
+     * @param game o jogo a desenhar
+     */
+    public void renderChanges(Engine game) {
+        renderChanges(game, 0, game.getRows() * game.getCols());
+    }
+
+    /**
+     * Desenha apenas as células que mudaram dentro de um intervalo de índices, como {@link #renderChanges(Engine)}.
+     * Depois de uma revelação o intervalo é o das células abertas ({@link Game#getRevealedFrom()} e
+     * {@link Game#getRevealedTo()}), por isso uma região que abre um milhão de células num tabuleiro maior
+     * só compara essa parte do tabuleiro. As mudanças fora do intervalo ficam por desenhar.
+     * @param game o jogo a desenhar
+     * @param from o índice da primeira célula a comparar
+     * @param to o índice a seguir à última célula a comparar
+     */
+    public void renderChanges(Engine game, int from, int to) {
+        long start = System.nanoTime();
+        int rows = game.getRows();
+        int cols = game.getCols();
+        length = 0;
+        if (shown == null || shown.length != rows * cols) {
+            shown = new byte[rows * cols];
+            for (int i = 0; i < shown.length; i++) {
+                shown[i] = (byte) game.symbolCode(i);
+            }
+            append(CLEAR_SCREEN);
+            appendFrame(game, null);
+        } else {
+            for (int i = Math.max(from, 0), end = Math.min(to, shown.length); i < end; i++) {
+                int code = game.symbolCode(i);
+                if (code != shown[i]) {
+                    shown[i] = (byte) code;
+                    moveCursor(i / cols + 2, (i % cols) * CELL_WIDTH + 1);
+                    append(SYMBOL_BYTES[code]);
+                }
+            }
+            moveCursor(rows + 3, 1);
+        }
+        flush();
+        Metrics.render(start, length);
+    }
+
+    /**
+     * Esquece o que está no ecrã, para que o próximo {@link #renderChanges(Engine)} desenhe o tabuleiro inteiro.
+     */
+    public void reset() {
+        shown = null;
+    }
+
+    /**
+     * Acrescenta ao buffer o tabuleiro inteiro, precedido de uma linha em branco.
+     * @param game o jogo a desenhar
+     * @param probabilities as probabilidades a mostrar nas células fechadas, ou null para mostrar os símbolos
+     */
+    private void appendFrame(Engine game, Probabilities probabilities) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        append('\n');
+        int index = 0;
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++, index++) {
+                int code = game.symbolCode(index);
+                if (probabilities != null && code == Game.HIDDEN_CODE) {
+                    appendPercent(probabilities.get(index));
+                } else {
+                    append(SYMBOL_BYTES[code]);
+                }
+            }
+            append('|');
+            append(' ');
+            appendRowLabel(i);
+            append('\n');
+        }
+        for (int j = 0; j < cols; j++) {
+            appendInt(j + 1);
+            append('|');
+            append(' ');
+        }
+        append('\n');
+    }
+
+    /**
+     * Acrescenta uma probabilidade em percentagem com a largura de uma célula.
+     */
+    private void appendPercent(double probability) {
+        if (probability <= 0) {
+            append('-');
+            append('-');
+        } else if (probability >= 1) {
+            append('*');
+            append('*');
+        } else {
+            int percent = (int) Math.max(1, Math.min(99, Math.round(probability * 100)));
+            append(percent < 10 ? ' ' : '0' + percent / 10);
+            append('0' + percent % 10);
+        }
+        append(' ');
+    }
+
+    /**
+     * Acrescenta a sequência ANSI que move o cursor para uma linha e coluna do ecrã (começando em 1).
+     */
+    private void moveCursor(int row, int col) {
+        append('\033');
+        append('[');
+        appendInt(row);
+        append(';');
+        appendInt(col);
+        append('H');
+    }
+
+    /**
+     * Escreve o buffer no destino com uma única escrita.
+     */
+    private void flush() {
+        try {
+            out.write(frame, 0, length);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void append(int b) {
+        ensureCapacity(1);
+        frame[length++] = (byte) b;
+    }
+
+    private void append(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, frame, length, bytes.length);
+        length += bytes.length;
+    }
+
+    /**
+     * Acrescenta as letras de uma linha (A, ..., Z, AA, ...), as mesmas aceites por {@link Coordinates#parseRow}.
+     */
+    private void appendRowLabel(int row) {
+        ensureCapacity(Coordinates.rowLabelLength(row));
+        length += Coordinates.writeRowLabel(row, frame, length);
+    }
+
+    /**
+     * Acrescenta um inteiro não negativo em decimal, sem criar Strings.
+     */
+    private void appendInt(int value) {
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) {
+            digits++;
+        }
+        ensureCapacity(digits);
+        for (int i = length + digits - 1; i >= length; i--) {
+            frame[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        length += digits;
+    }
+
+    private void ensureCapacity(int extra) {
+        if (length + extra > frame.length) {
+            frame = Arrays.copyOf(frame, Math.max(frame.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package minesweeper;
+
+/**
+ * Conversão entre as coordenadas escritas pelo jogador e os índices das linhas e colunas (a começar em 0).
+ * As linhas são letras em base 26 bijetiva, como as colunas de uma folha de cálculo
+ * (A a Z, depois AA, AB, ..., AZ, BA, ...), ou números a começar em 1; as colunas são números a começar em 1.
+ * A leitura é feita diretamente sobre bytes ASCII, sem criar Strings, para poder ser usada em ciclos
+ * de milhões de comandos.
+ */
+public final class Coordinates {
+
+    private Coordinates() {
+    }
+
+    /**
+     * Converte uma linha escrita em letras (maiúsculas ou minúsculas) ou em número no índice da linha.
+     * @param text os bytes do texto
+     * @param from a posição do primeiro byte
+     * @param to a posição a seguir ao último byte
+     * @return o índice da linha, ou -1 se o texto não for válido
+     */
+    public static int parseRow(byte[] text, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        if (text[from] >= '0' && text[from] <= '9') {
+            int number = parseNumber(text, from, to);
+            return number > 0 ? number - 1 : -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int letter = (text[i] | 0x20) - 'a'; //minúscula
+            if (letter < 0 || letter >= 26 || value > (Integer.MAX_VALUE - 26) / 26) {
+                return -1;
+            }
+            value = value * 26 + letter + 1;
+        }
+        return value - 1;
+    }
+
+    /**
+     * Converte o número de uma coluna (a começar em 1) no índice da coluna.
+     * @param text os bytes do texto
+     * @param from a posição do primeiro byte
+     * @param to a posição a seguir ao último byte
+     * @return o índice da coluna, ou -1 se o texto não for um número válido
+     */
+    public static int parseColumn(byte[] text, int from, int to) {
+        int number = parseNumber(text, from, to);
+        return number > 0 ? number - 1 : -1;
+    }
+
+    /**
+     * Lê um número decimal positivo.
+     * @return o número, ou -1 se o texto não for um número ou não couber num int
+     */
+    private static int parseNumber(byte[] text, int from, int to) {
+        if (from >= to) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = text[i] - '0';
+            if (digit < 0 || digit > 9 || value > (Integer.MAX_VALUE - digit) / 10) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    /**
+     * Escreve as letras de uma linha num array de bytes.
+     * @param row o índice da linha
+     * @param out o destino, com espaço para {@link #rowLabelLength(int)} bytes
+     * @param offset a posição onde começa a escrita
+     * @return a quantidade de bytes escritos
+     */
+    public static int writeRowLabel(int row, byte[] out, int offset) {
+        int length = rowLabelLength(row);
+        long value = (long) row + 1;
+        for (int i = offset + length - 1; i >= offset; i--) {
+            value--;
+            out[i] = (byte) ('A' + value % 26);
+            value /= 26;
+        }
+        return length;
+    }
+
+    /**
+     * @param row o índice da linha
+     * @return a quantidade de letras da linha
+     */
+    public static int rowLabelLength(int row) {
+        int length = 0;
+        for (long value = (long) row + 1; value > 0; value = (value - 1) / 26) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * @param row o índice da linha
+     * @return as letras da linha (A, B, ..., Z, AA, AB, ...)
+     */
+    public static String rowLabel(int row) {
+        byte[] label = new byte[rowLabelLength(row)];
+        writeRowLabel(row, label, 0);
+        return new String(label, java.nio.charset.StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,407 @@
+package minesweeper;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Tabuleiro sem limites, dividido em blocos de {@value #CHUNK}x{@value #CHUNK} células.
+ * As bombas de cada bloco não são guardadas: são derivadas de um hash da semente e das coordenadas do bloco,
+ * por isso um bloco pode ser gerado quando é preciso, esquecido e gerado outra vez com as mesmas bombas.
+ * Só os blocos usados recentemente ficam em memória (LRU); o estado do jogador (células abertas e bandeiras)
+ * fica em mapas de bits por bloco que nunca são esquecidos, por isso a memória cresce com a área explorada
+ * e não com o tamanho do tabuleiro.
+ * As coordenadas podem ser negativas. A célula (0, 0) e as suas vizinhas nunca têm bomba, para que o jogo
+ * possa começar aí. Não há vitória: o jogo só acaba quando uma bomba rebenta.
+ * <p>
+ * A revelação propaga-se entre blocos como no {@link Game}, mas pára ao fim de um número máximo de células
+ * por jogada; as células da fronteira que ficam por abrir podem ser abertas nas jogadas seguintes.
+ * Ao contrário do {@link Game}, as bandeiras nunca são abertas pela propagação.
+ */
+public class EndlessBoard {
+    static final int CHUNK_BITS = 6; //log2 do lado de um bloco
+    static final int CHUNK = 1 << CHUNK_BITS; //Lado de um bloco (64 células, uma palavra de 64 bits por linha)
+    private static final int MASK = CHUNK - 1; //Máscara da coordenada dentro do bloco
+    private final long seed; //Semente do tabuleiro
+    private final long threshold; //Uma célula tem bomba se o hash (53 bits) for menor do que este valor
+    private final int revealLimit; //Células abertas no máximo por cada revelação
+    private final LinkedHashMap<Long, long[]> mines; //Bombas dos blocos em memória, por ordem de utilização
+    private final HashMap<Long, long[]> opened = new HashMap<>(); //Células abertas de cada bloco tocado
+    private final HashMap<Long, long[]> flags = new HashMap<>(); //Bandeiras de cada bloco tocado
+    private long lastKey = Long.MIN_VALUE; //Bloco da última consulta às bombas
+    private long[] lastMines; //Bombas do bloco da última consulta
+    private long lastOpenedKey = Long.MIN_VALUE; //Bloco da última consulta às células abertas
+    private long[] lastOpened; //Células abertas do bloco da última consulta (null se o bloco não foi tocado)
+    private long[] queue = new long[64]; //Fila circular da revelação (tamanho potência de 2), reutilizada entre jogadas
+    private long openedCells; //Células abertas desde o início
+    private int flagCount; //Bandeiras colocadas
+    private boolean isGameOver; //Se o valor for true, uma bomba rebentou
+    private int explodedRow; //Linha da bomba que rebentou
+    private int explodedCol; //Coluna da bomba que rebentou
+    private long generatedChunks; //Blocos de bombas gerados (incluindo os gerados outra vez depois de esquecidos)
+
+    /**
+     * Cria um tabuleiro sem limites.
+     * @param seed a semente das bombas
+     * @param density a fração de células com bomba, entre 0 e 1 (exclusive)
+     * @param cachedChunks a quantidade máxima de blocos de bombas em memória
+     * @param revealLimit a quantidade máxima de células abertas por cada revelação
+     * @throws IllegalArgumentException se a densidade, os blocos ou o limite não forem válidos
+     */
+    public EndlessBoard(long seed, double density, int cachedChunks, int revealLimit) {
+        if (!(density >= 0 && density < 1)) {
+            throw new IllegalArgumentException("Invalid bomb density: " + density);
+        }
+        if (cachedChunks <= 0 || revealLimit <= 0) {
+            throw new IllegalArgumentException("Invalid cache size or reveal limit: " + cachedChunks + ", " + revealLimit);
+        }
+        this.seed = seed;
+        this.threshold = (long) (density * (1L << 53));
+        this.revealLimit = revealLimit;
+        this.mines = new LinkedHashMap<>(cachedChunks * 4 / 3 + 1, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, long[]> eldest) {
+                return size() > cachedChunks;
+            }
+        };
+    }
+
+    /**
+     * @return verdadeiro se uma bomba rebentou
+     */
+    public boolean isGameOver() {
+        return isGameOver;
+    }
+
+    /**
+     * @return as células abertas desde o início (a pontuação do jogo)
+     */
+    public long getOpenedCells() {
+        return openedCells;
+    }
+
+    /**
+     * @return as bandeiras colocadas
+     */
+    public int getFlags() {
+        return flagCount;
+    }
+
+    /**
+     * @return a quantidade de blocos de bombas em memória
+     */
+    public int getCachedChunks() {
+        return mines.size();
+    }
+
+    /**
+     * @return a quantidade de blocos com células abertas
+     */
+    public int getOpenedChunks() {
+        return opened.size();
+    }
+
+    /**
+     * @return os blocos de bombas gerados, incluindo os gerados outra vez depois de esquecidos
+     */
+    public long getGeneratedChunks() {
+        return generatedChunks;
+    }
+
+    /**
+     * Verifica se uma célula tem bomba, gerando o seu bloco se não estiver em memória.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return verdadeiro se a célula tem bomba
+     */
+    public boolean hasBomb(int row, int col) {
+        long key = key(row, col);
+        if (key != lastKey) {
+            long[] chunk = mines.get(key);
+            if (chunk == null) {
+                chunk = generate(row >> CHUNK_BITS, col >> CHUNK_BITS);
+                mines.put(key, chunk);
+            }
+            lastKey = key;
+            lastMines = chunk;
+        }
+        return (lastMines[row & MASK] >>> (col & MASK) & 1) != 0;
+    }
+
+    /**
+     * Gera as bombas de um bloco a partir do hash da semente, das coordenadas do bloco e da célula.
+     * @param chunkRow a linha do bloco
+     * @param chunkCol a coluna do bloco
+     * @return uma palavra por linha do bloco, com um bit por coluna
+     */
+    private long[] generate(int chunkRow, int chunkCol) {
+        generatedChunks++;
+        long[] chunk = new long[CHUNK];
+        long base = mix(seed ^ mix(((long) chunkRow << 32) | (chunkCol & 0xFFFFFFFFL)));
+        for (int r = 0; r < CHUNK; r++) {
+            long word = 0;
+            for (int c = 0; c < CHUNK; c++) {
+                if (mix(base + r * CHUNK + c) >>> 11 < threshold) {
+                    word |= 1L << c;
+                }
+            }
+            chunk[r] = word;
+        }
+        //A célula (0, 0) e as suas vizinhas ficam sempre sem bombas
+        for (int row = -1; row <= 1; row++) {
+            if (row >> CHUNK_BITS == chunkRow) {
+                for (int col = -1; col <= 1; col++) {
+                    if (col >> CHUNK_BITS == chunkCol) {
+                        chunk[row & MASK] &= ~(1L << (col & MASK));
+                    }
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Função de mistura do SplitMix64: cada bit da entrada afeta todos os bits da saída.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * @return a chave do bloco que contém a célula
+     */
+    private static long key(int row, int col) {
+        return ((long) (row >> CHUNK_BITS) << 32) | ((col >> CHUNK_BITS) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Retorna o número de bombas ao redor de uma célula, consultando os blocos vizinhos quando a célula
+     * está na borda do seu bloco.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return o número de bombas ao redor da célula
+     */
+    public int countBombs(int row, int col) {
+        int count = 0;
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if ((i != row || j != col) && hasBomb(i, j)) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return verdadeiro se a célula está aberta
+     */
+    public boolean isOpen(int row, int col) {
+        long key = key(row, col);
+        if (key != lastOpenedKey) {
+            lastOpenedKey = key;
+            lastOpened = opened.get(key);
+        }
+        return lastOpened != null && (lastOpened[row & MASK] >>> (col & MASK) & 1) != 0;
+    }
+
+    /**
+     * @return verdadeiro se a célula tem bandeira
+     */
+    public boolean isFlagged(int row, int col) {
+        return isSet(flags, row, col);
+    }
+
+    private static boolean isSet(HashMap<Long, long[]> bits, int row, int col) {
+        long[] chunk = bits.get(key(row, col));
+        return chunk != null && (chunk[row & MASK] >>> (col & MASK) & 1) != 0;
+    }
+
+    private static void set(HashMap<Long, long[]> bits, int row, int col, boolean value) {
+        long[] chunk = bits.computeIfAbsent(key(row, col), k -> new long[CHUNK]);
+        if (value) {
+            chunk[row & MASK] |= 1L << (col & MASK);
+        } else {
+            chunk[row & MASK] &= ~(1L << (col & MASK));
+        }
+    }
+
+    /**
+     * Retorna o código do símbolo de uma célula, com os mesmos códigos do {@link Game}.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return o número de bombas adjacentes se a célula estiver aberta, caso contrário um dos códigos
+     * HIDDEN_CODE, FLAG_CODE, BOMB_CODE ou EXPLODED_CODE
+     */
+    public int symbolCode(int row, int col) {
+        if (isOpen(row, col)) {
+            return countBombs(row, col);
+        }
+        if (isFlagged(row, col)) {
+            return Game.FLAG_CODE;
+        }
+        if (isGameOver && row == explodedRow && col == explodedCol) {
+            return Game.EXPLODED_CODE;
+        }
+        if (isGameOver && hasBomb(row, col)) {
+            return Game.BOMB_CODE;
+        }
+        return Game.HIDDEN_CODE;
+    }
+
+    /**
+     * Abre uma célula. Se tiver bomba o jogo acaba; se não tiver bombas à volta, a revelação propaga-se.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return LOSE, OK, ALREADY_OPEN, FLAGGED ou GAME_OVER
+     */
+    public MoveResult open(int row, int col) {
+        if (isGameOver) {
+            return MoveResult.GAME_OVER;
+        }
+        if (isOpen(row, col)) {
+            return MoveResult.ALREADY_OPEN;
+        }
+        if (isFlagged(row, col)) {
+            return MoveResult.FLAGGED;
+        }
+        if (hasBomb(row, col)) {
+            return explode(row, col);
+        }
+        revealAround(row, col);
+        return MoveResult.OK;
+    }
+
+    /**
+     * Coloca uma bandeira numa célula fechada, ou retira-a se já lá estiver.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return OK, ALREADY_OPEN ou GAME_OVER
+     */
+    public MoveResult flag(int row, int col) {
+        if (isGameOver) {
+            return MoveResult.GAME_OVER;
+        }
+        if (isOpen(row, col)) {
+            return MoveResult.ALREADY_OPEN;
+        }
+        boolean flagged = isFlagged(row, col);
+        set(flags, row, col, !flagged);
+        flagCount += flagged ? -1 : 1;
+        return MoveResult.OK;
+    }
+
+    /**
+     * Abre as vizinhas sem bandeira de uma célula aberta cujo número de bandeiras à volta é igual ao seu número.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return o resultado da jogada
+     */
+    public MoveResult chord(int row, int col) {
+        if (isGameOver) {
+            return MoveResult.GAME_OVER;
+        }
+        int count = countBombs(row, col);
+        int flagged = 0;
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if (isFlagged(i, j)) {
+                    flagged++;
+                }
+            }
+        }
+        if (!isOpen(row, col) || count == 0 || flagged != count) {
+            return MoveResult.CANNOT_CHORD;
+        }
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if (!isFlagged(i, j) && !isOpen(i, j) && hasBomb(i, j)) {
+                    return explode(i, j);
+                }
+            }
+        }
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if (!isFlagged(i, j) && !isOpen(i, j)) {
+                    revealAround(i, j);
+                }
+            }
+        }
+        return MoveResult.OK;
+    }
+
+    /**
+     * Termina o jogo com uma derrota.
+     * @return LOSE
+     */
+    private MoveResult explode(int row, int col) {
+        isGameOver = true;
+        explodedRow = row;
+        explodedCol = col;
+        return MoveResult.LOSE;
+    }
+
+    /**
+     * Abre uma célula sem bomba e, se não tiver bombas à volta, propaga a revelação às vizinhas, atravessando
+     * os blocos, até abrir no máximo o limite de células por revelação.
+     * A propagação é feita em largura (fila circular reutilizada entre jogadas), por isso quando o limite é
+     * atingido a área aberta fica à volta da célula escolhida em vez de se espalhar num caminho comprido.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return a quantidade de células abertas
+     */
+    public int revealAround(int row, int col) {
+        int count = 0;
+        int head = 0;
+        int size = 0;
+        queue[0] = pack(row, col);
+        size++;
+        while (size > 0 && count < revealLimit) {
+            long cell = queue[head];
+            head = (head + 1) & (queue.length - 1);
+            size--;
+            int i = (int) (cell >> 32);
+            int j = (int) cell;
+            if (isOpen(i, j) || isFlagged(i, j) || hasBomb(i, j)) {
+                continue;
+            }
+            set(opened, i, j, true);
+            if (lastOpened == null) {
+                lastOpenedKey = Long.MIN_VALUE; //o bloco acabou de ser criado
+            }
+            openedCells++;
+            count++;
+            if (countBombs(i, j) == 0) {
+                if (size + 8 > queue.length) {
+                    queue = grow(queue, head, size);
+                    head = 0;
+                }
+                for (int di = -1; di <= 1; di++) {
+                    for (int dj = -1; dj <= 1; dj++) {
+                        if ((di != 0 || dj != 0) && !isOpen(i + di, j + dj)) {
+                            queue[(head + size++) & (queue.length - 1)] = pack(i + di, j + dj);
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Duplica a fila circular, pondo os elementos por ordem a partir do início.
+     */
+    private static long[] grow(long[] queue, int head, int size) {
+        long[] bigger = new long[queue.length * 2];
+        for (int k = 0; k < size; k++) {
+            bigger[k] = queue[(head + k) & (queue.length - 1)];
+        }
+        return bigger;
+    }
+
+    private static long pack(int row, int col) {
+        return ((long) row << 32) | (col & 0xFFFFFFFFL);
+    }
+}
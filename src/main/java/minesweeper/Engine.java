@@ -0,0 +1,56 @@
+package minesweeper;
+
+/**
+ * Interface do motor do jogo MineSweeper, sem entrada nem saída na consola.
+ * Cada jogada devolve um {@link MoveResult}; as coordenadas começam em 0.
+ * Permite usar o jogo a partir do Menu, de testes de carga ou de serviços.
+ */
+public interface Engine {
+    /**
+     * Abre uma célula. Se não tiver bombas à volta, a revelação propaga-se às células vizinhas.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return o resultado da jogada
+     */
+    MoveResult open(int row, int col);
+
+    /**
+     * Coloca uma bandeira numa célula fechada, ou retira-a se já lá estiver.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return o resultado da jogada
+     */
+    MoveResult flag(int row, int col);
+
+    /**
+     * Abre todas as células vizinhas sem bandeira de uma célula aberta, se o número de bandeiras
+     * à volta for igual ao seu número.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return o resultado da jogada
+     */
+    MoveResult chord(int row, int col);
+
+    /**
+     * Revela uma célula sem bomba escolhida pelo motor.
+     * @return o resultado da jogada
+     */
+    MoveResult hint();
+
+    /**
+     * @return o número de linhas do tabuleiro
+     */
+    int getRows();
+
+    /**
+     * @return o número de colunas do tabuleiro
+     */
+    int getCols();
+
+    /**
+     * Retorna o código do símbolo de uma célula, como é mostrado ao jogador.
+     * @param index o índice row * cols + col da célula
+     * @return o código do símbolo
+     */
+    int symbolCode(int index);
+}
@@ -0,0 +1,1350 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Classe que representa o tabuleiro do jogo MineSweeper.
+ * A classe lida com a criação e manipulação do tabuleiro, incluindo a colocação de bombas e revelação de células.
+ * Ela também implementa a lógica para interações do jogador, como abrir células,
+ * colocar bandeiras e verificar se o jogo foi ganho ou perdido.
+ * É o motor do jogo: não lê nem escreve na consola, cada jogada devolve um {@link MoveResult}.
+ * Todo o estado de um jogo pertence à instância, por isso vários jogos podem correr em simultâneo;
+ * uma instância não é thread-safe e deve ser usada por uma thread de cada vez.
+ */
+public class Game implements Engine {
+    //Atributos de instância
+    private int rows; //Linhas
+    private int cols; //Colunas
+    private byte[] cells; //Tabuleiro compacto: um byte por célula, indexado por row * cols + col
+    private int amountBombs; //Quantidade de bombas
+    private int explodedCell = -1; //Índice da célula com a bomba que rebentou (-1 se nenhuma)
+    private int positionsWithoutBombs; //Quantidade de celulas sem bombas disponiveis
+    private int totalFlags; //Quantidade de bandeiras
+    private int guessedBombs;//Quantidade de bombas que o jogador adivinhou
+    private int wrongFlags; //Quantidade de bandeiras em células sem bomba
+    private int[] revealed = new int[16]; //Células abertas pela última revelação, pela ordem de abertura
+    private int[] seeds = new int[16]; //Pilha de sementes da revelação por faixas, reutilizada entre jogadas
+    private int revealedCount; //Quantidade de células abertas pela última revelação
+    private int revealedFrom; //Menor índice das células abertas pela última revelação
+    private int revealedTo; //Índice a seguir ao maior das células abertas pela última revelação
+    private boolean firstMove; //Se o valor for true, ainda nenhuma célula foi aberta com /open
+    private long seed; //Semente usada para colocar as bombas
+    private int startCell = -1; //Célula da primeira jogada garantida sem bomba, ou -1 se não foi escolhida
+    private RandomGenerator random; //Gerador usado para colocar as bombas e escolher as dicas
+    private GameState state = GameState.READY; //Estado do jogo
+    private GameListener[] listeners = NO_LISTENERS; //Ouvintes das mudanças de estado (copiado ao alterar)
+    private long startTime; //Tempo inicial do jogo
+    private long startNanos; //Valor de System.nanoTime() correspondente ao tempo inicial, para medir o tempo decorrido
+    private long playNanos; //Valor de System.nanoTime() na primeira jogada, para as métricas
+    private String name; //Nome do jogador
+    private int[] hintCells; //Células candidatas a dica (array denso), criado na primeira dica
+    private int[] hintPositions; //Posição de cada célula em hintCells, ou -1 se não for candidata
+    private int hintCount; //Quantidade de células candidatas a dica
+    private Journal journal; //Diário onde as jogadas são registadas, ou null se não houver
+    private History history; //Histórico para desfazer e refazer jogadas (modo de treino), ou null se não houver
+    private SpectatorFeed spectators; //Fluxo das mudanças para os espectadores, ou null se o jogo não for transmitido
+    //Bits de cada célula do tabuleiro compacto
+    private static final int COUNT = 0x0F; //Número de bombas adjacentes (0 a 8), calculado depois de colocar as bombas
+    private static final int BOMB = 0x10; //A célula tem uma bomba
+    private static final int OPEN = 0x20; //A célula foi verificada e revelada
+    private static final int FLAG = 0x40; //A célula tem uma bandeira
+    private static final int SHOWN = 0x80; //A bomba da célula está à vista (derrota ou /cheat)
+    //Códigos dos símbolos das células: 0 a 8 são os números de bombas adjacentes
+    static final int HIDDEN_CODE = 9; //Célula fechada
+    static final int FLAG_CODE = 10; //Célula com bandeira
+    static final int BOMB_CODE = 11; //Bomba à vista
+    static final int EXPLODED_CODE = 12; //Bomba que rebentou
+    //Símbolos usados apenas quando o tabuleiro é desenhado, indexados pelo código do símbolo
+    static final String[] SYMBOLS = {"0  ", "1  ", "2  ", "3  ", "4  ", "5  ", "6  ", "7  ", "8  ",
+            "■  ", "#  ", "B  ", "X  "};
+    private static final int[] NO_CELLS = new int[0]; //Lista vazia de células excluídas
+    private static final GameListener[] NO_LISTENERS = new GameListener[0]; //Lista vazia de ouvintes
+    //Atributos de classe, partilhados por todos os jogos em curso (sem locks)
+    private static final AtomicInteger anonymousCount = new AtomicInteger(); //Contador de utilizadores anônimos
+    private static volatile Leaderboard leaderboard = new Leaderboard(); //Tabela de vencedores (só em memória até ser definida)
+
+    /**
+     * Constroi uma nova instância do jogo com as dimensões e número de bombas especificados.
+     * @param rows o número de linhas no tabuleiro do jogo
+     * @param cols o número de colunas no tabuleiro do jogo
+     * @param amountBombs o número total de bombas a serem colocadas no tabuleiro
+     * Também inicializa os outros atributos do jogo.
+     * @throws IllegalArgumentException se as dimensões não forem positivas ou se a quantidade de bombas
+     * for negativa ou maior do que o número de células
+     */
+    public Game(int rows, int cols, int amountBombs) {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid board size: " + rows + "x" + cols);
+        }
+        if (amountBombs < 0 || amountBombs > rows * cols) {
+            throw new IllegalArgumentException("Invalid amount of bombs for a " + rows + "x" + cols + " board: " + amountBombs);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.amountBombs = amountBombs;
+        this.positionsWithoutBombs = rows * cols - amountBombs;
+    }
+
+    /**
+     * Retorna o estado atual do jogo (se acabou ou não).
+     * (utilizado como getter)
+     * @return verdadeiro se o jogo acabou, caso contrário falso.
+     */
+    public boolean isGameOver() {
+        return state == GameState.WON || state == GameState.LOST;
+    }
+
+    /**
+     * @return o estado do jogo
+     */
+    public GameState getState() {
+        return state;
+    }
+
+    /**
+     * Acrescenta um ouvinte das mudanças de estado do jogo.
+     * @param listener o ouvinte
+     */
+    public void addListener(GameListener listener) {
+        listeners = Arrays.copyOf(listeners, listeners.length + 1);
+        listeners[listeners.length - 1] = listener;
+    }
+
+    /**
+     * Retira um ouvinte acrescentado com {@link #addListener(GameListener)}.
+     * @param listener o ouvinte
+     */
+    public void removeListener(GameListener listener) {
+        for (int i = 0; i < listeners.length; i++) {
+            if (listeners[i] == listener) {
+                GameListener[] copy = new GameListener[listeners.length - 1];
+                System.arraycopy(listeners, 0, copy, 0, i);
+                System.arraycopy(listeners, i + 1, copy, i, copy.length - i);
+                listeners = copy;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Muda o estado do jogo e avisa os ouvintes, se o estado for diferente do atual.
+     * @param next o novo estado
+     */
+    private void setState(GameState next) {
+        GameState previous = state;
+        if (previous == next) {
+            return;
+        }
+        state = next;
+        if (previous == GameState.READY && next == GameState.PLAYING) {
+            playNanos = System.nanoTime();
+        } else if (previous == GameState.PLAYING && (next == GameState.WON || next == GameState.LOST)) {
+            Metrics.gameFinished(this, next == GameState.WON, System.nanoTime() - playNanos);
+        }
+        for (GameListener listener : listeners) {
+            listener.stateChanged(this, previous, next);
+        }
+    }
+
+    /**
+     * Retorna os nomes dos últimos vencedores, com o tempo de cada um.
+     * @return um array de {@link Leaderboard#LAST} strings, do vencedor mais antigo para o mais recente,
+     * com null nas posições ainda sem vencedor
+     */
+    public static String[] getWinners() {
+        String[] copy = new String[Leaderboard.LAST];
+        List<Leaderboard.Entry> last = leaderboard.lastWins();
+        for (int i = 0; i < last.size(); i++) {
+            copy[i] = last.get(i).toString();
+        }
+        return copy;
+    }
+
+    /**
+     * @return a tabela de vencedores onde as vitórias são guardadas
+     */
+    public static Leaderboard getLeaderboard() {
+        return leaderboard;
+    }
+
+    /**
+     * Define a tabela de vencedores onde as vitórias são guardadas (por exemplo uma tabela num ficheiro).
+     * @param newLeaderboard a tabela de vencedores
+     */
+    public static void setLeaderboard(Leaderboard newLeaderboard) {
+        leaderboard = newLeaderboard;
+    }
+
+    /**
+     * @return o número de linhas do tabuleiro
+     */
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * @return o número de colunas do tabuleiro
+     */
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * @return o número de bandeiras restantes
+     */
+    public int getTotalFlags() {
+        return totalFlags;
+    }
+
+    /**
+     * @return a semente usada para colocar as bombas
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return o índice da célula da primeira jogada escolhida em {@link #fillBombs(long, int, int)}, ou -1
+     */
+    public int getStartCell() {
+        return startCell;
+    }
+
+    /**
+     * @return a quantidade de bombas no tabuleiro
+     */
+    public int getAmountBombs() {
+        return amountBombs;
+    }
+
+    /**
+     * @return a quantidade de celulas sem bombas
+     */
+    public int getPositionsWithoutBombs() {
+        return positionsWithoutBombs;
+    }
+
+    /**
+     * @return a quantidade de bombas que o jogador adivinhou (bandeiras certas)
+     */
+    public int getGuessedBombs() {
+        return guessedBombs;
+    }
+
+    /**
+     * @return a quantidade de bandeiras em células sem bomba
+     */
+    public int getWrongFlags() {
+        return wrongFlags;
+    }
+
+    /**
+     * Termina ou retoma o jogo sem jogadas. Terminar um jogo em curso conta como derrota (jogo abandonado);
+     * retomar um jogo acabado volta ao estado PLAYING.
+     * @param gameOver verdadeiro se o jogo acabou, caso contrário falso
+     */
+    public void setIsGameOver(boolean gameOver) {
+        if (gameOver != isGameOver()) {
+            setState(gameOver ? GameState.LOST : GameState.PLAYING);
+        }
+    }
+
+    /**
+     * Dá o jogo como ganho (comando /win), deixando todas as bombas à vista.
+     */
+    public void forceWin() {
+        record();
+        revealBombs();
+        setState(GameState.WON);
+        publish();
+    }
+
+    /**
+     * Começa o cronometro
+     * @param startTime o tempo inicial em milisegundos
+     */
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+        this.startNanos = System.nanoTime() - (System.currentTimeMillis() - startTime) * 1_000_000;
+    }
+
+    /**
+     * @return o nome do jogador, ou null se ainda não foi definido
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return o tempo inicial do jogo em milisegundos
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return o diário onde as jogadas são registadas, ou null se não houver
+     */
+    public Journal getJournal() {
+        return journal;
+    }
+
+    /**
+     * Define o diário onde as jogadas aceites passam a ser registadas.
+     * @param journal o diário, ou null para deixar de registar
+     */
+    public void setJournal(Journal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * @return o histórico das jogadas, ou null se o jogo não permite desfazer jogadas
+     */
+    public History getHistory() {
+        return history;
+    }
+
+    /**
+     * Define o histórico onde as jogadas seguintes são guardadas para poderem ser desfeitas (modo de treino).
+     * @param history o histórico, ou null para deixar de guardar as jogadas
+     */
+    public void setHistory(History history) {
+        this.history = history;
+    }
+
+    /**
+     * @return o fluxo das mudanças para os espectadores, ou null se o jogo não for transmitido
+     */
+    public SpectatorFeed getSpectators() {
+        return spectators;
+    }
+
+    /**
+     * Define o fluxo para onde as mudanças de cada jogada passam a ser publicadas (ver {@link SpectatorServer}).
+     * Só pode ser chamado pela thread que joga: o campo é lido em cada célula escrita, sem sincronização.
+     * @param spectators o fluxo, ou null para deixar de publicar
+     */
+    public void setSpectators(SpectatorFeed spectators) {
+        this.spectators = spectators;
+    }
+
+    /**
+     * Desfaz a última jogada (comando /undo), repondo os blocos do tabuleiro e os contadores guardados pelo
+     * {@link History}. Também desfaz o fim do jogo, se a jogada o tiver terminado.
+     * @return OK se a jogada foi desfeita, NOTHING_TO_UNDO se não há histórico ou jogadas por desfazer
+     */
+    public MoveResult undo() {
+        History.Step step = history == null ? null : history.undo();
+        if (step == null) {
+            return MoveResult.NOTHING_TO_UNDO;
+        }
+        swap(step);
+        publish();
+        return MoveResult.OK;
+    }
+
+    /**
+     * Refaz a última jogada desfeita (comando /redo).
+     * @return OK (ou o fim do jogo que a jogada causou), NOTHING_TO_REDO se não há jogadas por refazer
+     */
+    public MoveResult redo() {
+        History.Step step = history == null ? null : history.redo();
+        if (step == null) {
+            return MoveResult.NOTHING_TO_REDO;
+        }
+        swap(step);
+        publish();
+        return state == GameState.WON ? MoveResult.WIN : state == GameState.LOST ? MoveResult.LOSE : MoveResult.OK;
+    }
+
+    /**
+     * Troca o tabuleiro e os contadores do jogo pelos de um passo do histórico.
+     * As dicas são reconstruídas na dica seguinte. O estado é reposto sem avisar os ouvintes nem as {@link Metrics}:
+     * refazer uma jogada que perdeu o jogo não conta outra derrota.
+     * @param step o passo
+     */
+    private void swap(History.Step step) {
+        if (spectators != null) {
+            for (int k = 0; k < step.tileCount(); k++) {
+                for (int i = step.tileStart(k), end = step.tileEnd(k); i < end; i++) {
+                    spectators.mark(i);
+                }
+            }
+        }
+        step.swapTiles(cells);
+        int[] saved = step.swapState(new int[] {positionsWithoutBombs, totalFlags, guessedBombs, wrongFlags,
+                explodedCell, firstMove ? 1 : 0, state.ordinal()});
+        positionsWithoutBombs = saved[0];
+        totalFlags = saved[1];
+        guessedBombs = saved[2];
+        wrongFlags = saved[3];
+        explodedCell = saved[4];
+        firstMove = saved[5] != 0;
+        hintPositions = null;
+        //O fim do jogo já foi contado (Metrics, ouvintes) quando a jogada foi feita, por isso o estado é só reposto
+        state = GameState.values()[saved[6]];
+    }
+
+    /**
+     * Começa um passo no histórico, se houver, guardando os contadores antes da jogada.
+     */
+    private void record() {
+        if (history != null) {
+            history.begin(new int[] {positionsWithoutBombs, totalFlags, guessedBombs, wrongFlags,
+                    explodedCell, firstMove ? 1 : 0, state.ordinal()});
+        }
+    }
+
+    /**
+     * Avisa o histórico, se houver, de que uma célula vai ser escrita, para que o seu bloco seja guardado,
+     * e marca-a no fluxo dos espectadores, se houver.
+     * @param index o índice da célula
+     */
+    private void touch(int index) {
+        if (history != null) {
+            history.save(cells, index);
+        }
+        if (spectators != null) {
+            spectators.mark(index);
+        }
+    }
+
+    /**
+     * Publica aos espectadores, se houver, as células mudadas pela jogada que terminou.
+     * Se o servidor dos espectadores foi fechado, o jogo larga o fluxo em vez de publicar.
+     */
+    private void publish() {
+        if (spectators != null) {
+            if (spectators.isClosed()) {
+                spectators = null;
+            } else {
+                spectators.commit();
+            }
+        }
+    }
+
+    /**
+     * Inicializa o tabuleiro compacto do jogo.
+     * Cada célula ocupa um único byte com os bits de bomba, aberta, bandeira e bombas adjacentes,
+     * começando todas escondidas, sem bombas e sem bandeiras.
+     * Será o estado inicial do jogo.
+     */
+    public void initializeGame() {
+        cells = new byte[rows * cols];
+        clear();
+    }
+
+    /**
+     * Prepara um jogo acabado para ser reutilizado pelo {@link BoardPool}, sem criar um novo tabuleiro:
+     * as células são limpas no mesmo array e o jogo deixa de ter ouvintes, diário, histórico, espectadores e nome.
+     * As bombas têm de ser colocadas outra vez.
+     */
+    void recycle() {
+        listeners = NO_LISTENERS;
+        journal = null;
+        history = null;
+        spectators = null;
+        name = null;
+        startTime = 0;
+        startNanos = 0;
+        Arrays.fill(cells, (byte) 0);
+        clear();
+    }
+
+    /**
+     * Põe os contadores e o estado do jogo como no início, com as células já limpas.
+     */
+    private void clear() {
+        hintPositions = null;
+        explodedCell = -1;
+        startCell = -1;
+        firstMove = true;
+        totalFlags = amountBombs;
+        guessedBombs = 0;
+        wrongFlags = 0;
+        positionsWithoutBombs = rows * cols - amountBombs;
+        setState(GameState.READY);
+    }
+
+    /**
+     * Retorna o tabuleiro compacto (sem cópia), para ser guardado por {@link Snapshot}.
+     * @return um byte por célula, indexado por row * cols + col
+     */
+    byte[] getCells() {
+        return cells;
+    }
+
+    /**
+     * @return o índice da célula com a bomba que rebentou, ou -1
+     */
+    int getExplodedCell() {
+        return explodedCell;
+    }
+
+    /**
+     * @return verdadeiro se ainda nenhuma célula foi aberta com /open
+     */
+    boolean isFirstMove() {
+        return firstMove;
+    }
+
+    /**
+     * Repõe o estado completo de um jogo guardado por {@link Snapshot}.
+     * As dicas são reconstruídas na primeira dica e o gerador das dicas é recriado a partir da semente.
+     * @param cells o tabuleiro compacto, com um byte por célula
+     * @param positionsWithoutBombs as células sem bomba ainda fechadas
+     * @param totalFlags as bandeiras restantes
+     * @param guessedBombs as bombas com bandeira
+     * @param explodedCell a célula com a bomba que rebentou, ou -1
+     * @param startCell a célula da primeira jogada garantida, ou -1
+     * @param seed a semente usada para colocar as bombas
+     * @param firstMove verdadeiro se ainda nenhuma célula foi aberta
+     * @param state o estado do jogo
+     */
+    void restore(byte[] cells, int positionsWithoutBombs, int totalFlags, int guessedBombs, int explodedCell,
+                 int startCell, long seed, boolean firstMove, GameState state) {
+        this.cells = cells;
+        this.positionsWithoutBombs = positionsWithoutBombs;
+        this.totalFlags = totalFlags;
+        this.guessedBombs = guessedBombs;
+        this.explodedCell = explodedCell;
+        this.startCell = startCell;
+        this.seed = seed;
+        this.wrongFlags = amountBombs - totalFlags - guessedBombs;
+        this.firstMove = firstMove;
+        this.hintPositions = null;
+        this.random = RandomGeneratorFactory.<RandomGenerator>of("Xoshiro256PlusPlus").create(seed);
+        setState(state);
+    }
+
+    /**
+     * Retorna o símbolo a desenhar para uma célula, de acordo com o seu estado.
+     * As strings só são produzidas aqui, quando o tabuleiro é exibido.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return o símbolo da célula ("■  ", "#  ", "B  ", "X  " ou o número de bombas adjacentes)
+     */
+    public String cellSymbol(int row, int col) {
+        return SYMBOLS[symbolCode(row * cols + col)];
+    }
+
+    /**
+     * Retorna o código do símbolo de uma célula (índice em {@link #SYMBOLS}), usado pelo {@link BoardRenderer}.
+     * @param index o índice row * cols + col da célula
+     * @return o número de bombas adjacentes se a célula estiver aberta, caso contrário um dos códigos
+     * HIDDEN_CODE, FLAG_CODE, BOMB_CODE ou EXPLODED_CODE
+     */
+    @Override
+    public int symbolCode(int index) {
+        int cell = cells[index];
+        if ((cell & OPEN) != 0) {
+            return cell & COUNT;
+        }
+        if ((cell & FLAG) != 0) {
+            return FLAG_CODE;
+        }
+        if (index == explodedCell) {
+            return EXPLODED_CODE;
+        }
+        if ((cell & SHOWN) != 0) {
+            return BOMB_CODE;
+        }
+        return HIDDEN_CODE;
+    }
+
+    /**
+     * Preenche o tabuleiro com as bombas aleatoriamente, sem repetir posições, usando uma semente nova.
+     * A semente usada fica disponível em {@link #getSeed()} para que o tabuleiro possa ser reproduzido.
+     */
+    public void fillBombs() {
+        fillBombs(ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Preenche o tabuleiro com as bombas a partir de uma semente.
+     * A mesma semente e as mesmas dimensões produzem sempre o mesmo tabuleiro.
+     * @param seed a semente do gerador (xoshiro256++)
+     */
+    public void fillBombs(long seed) {
+        this.seed = seed;
+        fillBombs(RandomGeneratorFactory.<RandomGenerator>of("Xoshiro256PlusPlus").create(seed));
+    }
+
+    /**
+     * Preenche o tabuleiro com as bombas a partir de uma semente, deixando sem bombas a célula da primeira jogada
+     * e as suas vizinhas, para que a primeira jogada abra sempre uma região vazia.
+     * Se não houver células livres suficientes, fica livre só a célula da primeira jogada (ou nenhuma, se
+     * todas as células tiverem bomba).
+     * A célula da primeira jogada fica disponível em {@link #getStartCell()}.
+     * @param seed a semente do gerador (xoshiro256++)
+     * @param row a linha da primeira jogada
+     * @param col a coluna da primeira jogada
+     */
+    public void fillBombs(long seed, int row, int col) {
+        int[] zone = new int[9];
+        int size = 0;
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                zone[size++] = i * cols + j;
+            }
+        }
+        int free = cells.length - amountBombs;
+        if (free >= size) {
+            zone = Arrays.copyOf(zone, size);
+        } else {
+            zone = free > 0 ? new int[]{row * cols + col} : NO_CELLS;
+        }
+        this.seed = seed;
+        this.startCell = row * cols + col;
+        fillBombs(RandomGeneratorFactory.<RandomGenerator>of("Xoshiro256PlusPlus").create(seed), zone);
+    }
+
+    /**
+     * Preenche o tabuleiro com as bombas usando o gerador fornecido (por exemplo SplittableRandom).
+     * As posições são escolhidas pelo algoritmo de Floyd sobre os índices das células, com um único número
+     * aleatório por bomba e sem repetições. Quando há mais bombas do que células livres, são escolhidas as
+     * células livres em vez das bombas, por isso o tempo é proporcional ao número de células mesmo com
+     * densidades muito altas.
+     * No fim calcula a grelha de bombas adjacentes de todas as células.
+     * @param random o gerador de números aleatórios
+     */
+    public void fillBombs(RandomGenerator random) {
+        fillBombs(random, NO_CELLS);
+    }
+
+    /**
+     * Preenche o tabuleiro com as bombas, sem colocar nenhuma nas células excluídas.
+     * @param random o gerador de números aleatórios
+     * @param excluded os índices das células que ficam sem bomba, por ordem crescente
+     */
+    private void fillBombs(RandomGenerator random, int[] excluded) {
+        long start = System.nanoTime();
+        this.random = random;
+        int allowed = cells.length - excluded.length;
+        if (amountBombs <= allowed / 2) {
+            placeRandomly(random, allowed, amountBombs, BOMB, excluded);
+        } else {
+            for (int i = 0; i < cells.length; i++) {
+                cells[i] |= BOMB;
+            }
+            for (int index : excluded) {
+                cells[index] &= ~BOMB;
+            }
+            placeRandomly(random, allowed, allowed - amountBombs, 0, excluded);
+        }
+        computeCounts();
+        Metrics.fillBombs(start, cells.length, amountBombs);
+    }
+
+    /**
+     * Escolhe uniformemente um subconjunto das células permitidas pelo algoritmo de Floyd e define o bit
+     * de bomba de cada uma.
+     * @param random o gerador de números aleatórios
+     * @param allowed a quantidade de células permitidas
+     * @param amount a quantidade de células a escolher
+     * @param bomb BOMB para colocar bombas nas células escolhidas, 0 para as deixar livres
+     * @param excluded os índices das células que não podem ser escolhidas, por ordem crescente
+     */
+    private void placeRandomly(RandomGenerator random, int allowed, int amount, int bomb, int[] excluded) {
+        for (int j = allowed - amount; j < allowed; j++) {
+            int chosen = allowedCell(random.nextInt(j + 1), excluded);
+            if ((cells[chosen] & BOMB) == bomb) {
+                chosen = allowedCell(j, excluded);
+            }
+            cells[chosen] = (byte) ((cells[chosen] & ~BOMB) | bomb);
+        }
+    }
+
+    /**
+     * Converte a posição de uma célula entre as células permitidas no seu índice no tabuleiro.
+     * @param position a posição entre as células permitidas
+     * @param excluded os índices das células excluídas, por ordem crescente
+     * @return o índice da célula
+     */
+    private static int allowedCell(int position, int[] excluded) {
+        for (int index : excluded) {
+            if (position >= index) {
+                position++;
+            }
+        }
+        return position;
+    }
+
+    /**
+     * Calcula numa única passagem o número de bombas adjacentes de todas as células,
+     * guardando-o nos bits de contagem de cada célula.
+     * Depois disto {@link #countBombs(int, int)} é apenas uma leitura.
+     */
+    public void computeCounts() {
+        hintPositions = null;
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] &= ~COUNT;
+        }
+        for (int i = 0; i < rows; i++) {
+            for (int j = 0; j < cols; j++) {
+                if ((cells[i * cols + j] & BOMB) != 0) {
+                    addToNeighbours(i, j, 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Soma um valor à contagem de bombas adjacentes das células vizinhas de uma célula.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @param delta 1 quando uma bomba é colocada, -1 quando é retirada
+     */
+    private void addToNeighbours(int row, int col, int delta) {
+        int firstRow = Math.max(row - 1, 0);
+        int lastRow = Math.min(row + 1, rows - 1);
+        int firstCol = Math.max(col - 1, 0);
+        int lastCol = Math.min(col + 1, cols - 1);
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                if (i != row || j != col) {
+                    touch(i * cols + j);
+                    cells[i * cols + j] += delta;
+                }
+            }
+        }
+    }
+
+    /**
+     * Muda a bomba de uma célula para a primeira célula livre do tabuleiro (percorrido linha a linha),
+     * atualizando apenas as contagens das vizinhanças de origem e de destino.
+     * Usado para que a primeira jogada nunca seja numa bomba.
+     * @param row a linha da célula com a bomba
+     * @param col a coluna da célula com a bomba
+     * @return verdadeiro se a bomba foi mudada, falso se a célula não tinha bomba ou não existe célula livre
+     */
+    public boolean relocateBomb(int row, int col) {
+        int from = row * cols + col;
+        if ((cells[from] & BOMB) == 0) {
+            return false;
+        }
+        for (int to = 0; to < cells.length; to++) {
+            if (to != from && (cells[to] & (BOMB | OPEN)) == 0) {
+                hintPositions = null;
+                moveFlagCount(from, -1);
+                touch(from);
+                cells[from] &= ~BOMB;
+                addToNeighbours(row, col, -1);
+                touch(to);
+                cells[to] |= BOMB;
+                moveFlagCount(to, 1);
+                addToNeighbours(to / cols, to % cols, 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Corrige os contadores de bandeiras certas e erradas quando uma bomba entra ou sai de uma célula com bandeira.
+     * @param index o índice da célula
+     * @param delta 1 quando a bomba entra na célula, -1 quando sai
+     */
+    private void moveFlagCount(int index, int delta) {
+        if ((cells[index] & FLAG) != 0) {
+            guessedBombs += delta;
+            wrongFlags -= delta;
+        }
+    }
+
+    /**
+     * Fornece uma dica ao jogador, revelando uma célula aleatória sem bomba, com número de bombas adjacentes maior que 0
+     * que não tenha sido aberta ainda nem tenha bandeira.
+     * As células candidatas são mantidas num conjunto indexado (array denso mais mapa de posições), atualizado
+     * pelas jogadas de abrir e de colocar bandeiras, por isso cada dica custa O(1).
+     * Utilizado no Menu para o comando /hint
+     * @return OK (ou WIN) se uma célula foi revelada, NO_HINT se não existe nenhuma dica disponível
+     */
+    @Override
+    public MoveResult hint() {
+        if (isGameOver()) {
+            return MoveResult.GAME_OVER;
+        }
+        long start = System.nanoTime();
+        if (hintPositions == null) {
+            buildHints();
+        }
+        if (hintCount == 0) {
+            return MoveResult.NO_HINT;
+        }
+        int index = hintCells[random.nextInt(hintCount)];
+        Metrics.hint(start, hintCount);
+        return hintAt(index);
+    }
+
+    /**
+     * Revela como dica uma célula escolhida. Usado por {@link #hint()} e pelo {@link Replay}, que repete a
+     * célula guardada no diário em vez de a sortear.
+     * @param index o índice da célula, que tem de estar fechada, sem bandeira e sem bomba
+     * @return OK (ou WIN) se a célula foi revelada, NO_HINT se a célula não podia ser revelada
+     */
+    MoveResult hintAt(int index) {
+        if (isGameOver()) {
+            return MoveResult.GAME_OVER;
+        }
+        if ((cells[index] & (BOMB | OPEN | FLAG)) != 0) {
+            return MoveResult.NO_HINT;
+        }
+        accept(Journal.HINT, index);
+        clearRevealed();
+        openCell(index);
+        return checkWin();
+    }
+
+    /**
+     * Trata uma jogada aceite pelo motor: regista-a no diário, se houver, começa o seu passo no histórico,
+     * se houver, e na primeira jogada passa o jogo
+     * de READY a PLAYING.
+     * @param op a operação
+     * @param index o índice da célula
+     */
+    private void accept(int op, int index) {
+        if (journal != null) {
+            journal.record(op, index);
+        }
+        record();
+        Metrics.MOVES.increment();
+        if (state == GameState.READY) {
+            setState(GameState.PLAYING);
+        }
+    }
+
+    /**
+     * Constrói o conjunto de células candidatas a dica percorrendo o tabuleiro uma vez.
+     * Só é chamado na primeira dica e depois de as bombas mudarem de sítio.
+     */
+    private void buildHints() {
+        hintCells = new int[cells.length];
+        hintPositions = new int[cells.length];
+        hintCount = 0;
+        Arrays.fill(hintPositions, -1);
+        for (int i = 0; i < cells.length; i++) {
+            addHint(i);
+        }
+    }
+
+    /**
+     * Acrescenta uma célula ao conjunto de dicas, se for candidata e ainda não estiver no conjunto.
+     * @param index o índice da célula
+     */
+    private void addHint(int index) {
+        int cell = cells[index];
+        if (hintPositions[index] < 0 && (cell & (BOMB | OPEN | FLAG)) == 0 && (cell & COUNT) > 0) {
+            hintPositions[index] = hintCount;
+            hintCells[hintCount++] = index;
+        }
+    }
+
+    /**
+     * Retira uma célula do conjunto de dicas, trocando-a com a última do array denso.
+     * @param index o índice da célula
+     */
+    private void removeHint(int index) {
+        int position = hintPositions[index];
+        if (position < 0) {
+            return;
+        }
+        int last = hintCells[--hintCount];
+        hintCells[position] = last;
+        hintPositions[last] = position;
+        hintPositions[index] = -1;
+    }
+
+    /**
+     * Valida se uma posição (linha e coluna) fornecida está dentro dos limites do tabuleiro e pode ser jogada.
+     * @param row a linha a ser validada
+     * @param col a coluna a ser validada
+     * @return OK se a posição for válida, caso contrário o motivo pelo qual não é
+     */
+    public MoveResult validatePosition(int row, int col) {
+        if (row < 0 || row >= rows) {
+            return MoveResult.INVALID_ROW;
+        }
+        if (col < 0 || col >= cols) {
+            return MoveResult.INVALID_COLUMN;
+        }
+        int cell = cells[row * cols + col];
+        if ((cell & OPEN) != 0) {
+            return MoveResult.ALREADY_OPEN;
+        }
+        if ((cell & FLAG) != 0) {
+            return MoveResult.FLAGGED;
+        }
+        return MoveResult.OK;
+    }
+
+    /**
+     * Abre uma célula do tabuleiro (comando /open).
+     * Na primeira jogada, se a célula tiver bomba, a bomba é mudada de sítio antes de abrir.
+     * Se uma bomba for revelada, o jogo é perdido e todas as bombas ficam à vista.
+     * @param row a linha da célula a ser aberta
+     * @param col a coluna da célula a ser aberta
+     * @return o resultado da jogada
+     */
+    @Override
+    public MoveResult open(int row, int col) {
+        if (isGameOver()) {
+            return MoveResult.GAME_OVER;
+        }
+        MoveResult valid = validatePosition(row, col);
+        if (valid != MoveResult.OK) {
+            return valid;
+        }
+        accept(Journal.OPEN, row * cols + col);
+        if (firstMove) {
+            firstMove = false;
+            relocateBomb(row, col);
+        }
+        int index = row * cols + col;
+        if ((cells[index] & BOMB) != 0) {
+            return explode(index);
+        }
+        revealAround(row, col);
+        return checkWin();
+    }
+
+    /**
+     * Coloca ou remove uma bandeira na célula especificada (comando /flag).
+     * Se tentar colocar a bandeira numa celula que ja tenha flag, ira ser removida.
+     * @param row a linha da célula onde a bandeira será colocada ou removida
+     * @param col a coluna da célula onde a bandeira será colocada ou removida
+     * @return o resultado da jogada
+     */
+    @Override
+    public MoveResult flag(int row, int col) {
+        if (isGameOver()) {
+            return MoveResult.GAME_OVER;
+        }
+        MoveResult valid = validatePosition(row, col);
+        if (valid != MoveResult.OK && valid != MoveResult.FLAGGED) {
+            return valid;
+        }
+        accept(Journal.FLAG, row * cols + col);
+        if (valid == MoveResult.FLAGGED) {
+            removeFlag(row * cols + col);
+            publish();
+            return MoveResult.OK;
+        }
+        placeFlag(row * cols + col);
+        return checkWin();
+    }
+
+    /**
+     * Abre as células vizinhas sem bandeira de uma célula aberta cujo número de bandeiras à volta
+     * é igual ao seu número de bombas adjacentes.
+     * Se alguma bandeira estiver errada, é aberta uma bomba e o jogo é perdido.
+     * @param row a linha da célula aberta
+     * @param col a coluna da célula aberta
+     * @return o resultado da jogada
+     */
+    @Override
+    public MoveResult chord(int row, int col) {
+        if (isGameOver()) {
+            return MoveResult.GAME_OVER;
+        }
+        if (row < 0 || row >= rows) {
+            return MoveResult.INVALID_ROW;
+        }
+        if (col < 0 || col >= cols) {
+            return MoveResult.INVALID_COLUMN;
+        }
+        int cell = cells[row * cols + col];
+        int firstRow = Math.max(row - 1, 0);
+        int lastRow = Math.min(row + 1, rows - 1);
+        int firstCol = Math.max(col - 1, 0);
+        int lastCol = Math.min(col + 1, cols - 1);
+        int flags = 0;
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                if ((cells[i * cols + j] & FLAG) != 0) {
+                    flags++;
+                }
+            }
+        }
+        if ((cell & OPEN) == 0 || (cell & COUNT) == 0 || flags != (cell & COUNT)) {
+            return MoveResult.CANNOT_CHORD;
+        }
+        accept(Journal.CHORD, row * cols + col);
+        clearRevealed();
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                int index = i * cols + j;
+                if ((cells[index] & (BOMB | FLAG)) == BOMB) {
+                    return explode(index);
+                }
+            }
+        }
+        for (int i = firstRow; i <= lastRow; i++) {
+            for (int j = firstCol; j <= lastCol; j++) {
+                if ((cells[i * cols + j] & FLAG) == 0) {
+                    reveal(i, j);
+                }
+            }
+        }
+        return checkWin();
+    }
+
+    /**
+     * Termina o jogo com uma derrota, deixando todas as bombas à vista, e publica as mudanças aos espectadores.
+     * @param index o índice da bomba que rebentou
+     * @return LOSE
+     */
+    private MoveResult explode(int index) {
+        revealBombs();
+        explodedCell = index;
+        setState(GameState.LOST);
+        publish();
+        return MoveResult.LOSE;
+    }
+
+    /**
+     * Verifica se o jogador ganhou: todas as células sem bomba abertas e todas as bombas com bandeira.
+     * Os contadores são atualizados em cada abertura e em cada bandeira, por isso a verificação é O(1).
+     * Termina a jogada, publicando as suas mudanças aos espectadores.
+     * @return WIN se o jogo foi ganho, caso contrário OK
+     */
+    private MoveResult checkWin() {
+        if (positionsWithoutBombs == 0 && guessedBombs == amountBombs) {
+            setState(GameState.WON);
+            publish();
+            return MoveResult.WIN;
+        }
+        publish();
+        return MoveResult.OK;
+    }
+
+    /**
+     * Retorna o número de bombas ao redor de uma célula (sem contar a própria célula).
+     * As contagens são pré-calculadas por {@link #computeCounts()}, por isso é apenas uma leitura.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return o número de bombas ao redor da célula
+     */
+    public int countBombs(int row, int col) {
+        return cells[row * cols + col] & COUNT;
+    }
+
+    /**
+     * Verifica se uma célula tem bomba.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return verdadeiro se a célula tem bomba
+     */
+    public boolean hasBomb(int row, int col) {
+        return (cells[row * cols + col] & BOMB) != 0;
+    }
+
+    /**
+     * Revela as células ao redor de uma célula aberta, caso não tenha bomba e esteja dentro dos limites do tabuleiro.
+     * Se a célula aberta não tiver bombas ao redor, a revelação propaga-se para as células adjacentes.
+     * A propagação é feita por faixas horizontais (scanline) com uma pilha de sementes reutilizada entre jogadas,
+     * sem recursão e sem alocações por célula, por isso uma região vazia de qualquer tamanho não esgota a pilha
+     * e o tabuleiro é percorrido linha a linha.
+     * Bandeiras em células sem bomba alcançadas pela propagação são removidas e devolvidas ao jogador.
+     * As células abertas ficam disponíveis em {@link #getRevealedCells()}, e o intervalo de índices onde estão em
+     * {@link #getRevealedFrom()} e {@link #getRevealedTo()}, para o {@link BoardRenderer} só redesenhar esse intervalo.
+     * A quantidade de células abertas e a duração ficam nas {@link Metrics}.
+     * @param row a linha da célula
+     * @param col a coluna da célula
+     * @return a quantidade de células abertas
+     */
+    public int revealAround(int row, int col) {
+        clearRevealed();
+        return reveal(row, col);
+    }
+
+    /**
+     * Faz uma revelação como {@link #revealAround(int, int)}, acrescentando as células abertas às que a jogada
+     * já abriu (o /chord revela à volta de cada vizinha).
+     * @return a quantidade de células abertas por esta revelação
+     */
+    private int reveal(int row, int col) {
+        long start = System.nanoTime();
+        int count = floodFill(row, col);
+        Metrics.reveal(start, row * cols + col, count);
+        return count;
+    }
+
+    /**
+     * Abre a célula e a região vazia à sua volta, como descrito em {@link #revealAround(int, int)}.
+     * @return a quantidade de células abertas
+     */
+    private int floodFill(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            return 0;
+        }
+        int start = row * cols + col;
+        if ((cells[start] & (OPEN | BOMB)) != 0) {
+            return 0;
+        }
+        int before = revealedCount;
+        if ((cells[start] & COUNT) > 0) {
+            openCell(start);
+            return revealedCount - before;
+        }
+        int seedCount = 0;
+        seeds[seedCount++] = start;
+        while (seedCount > 0) {
+            int seed = seeds[--seedCount];
+            if ((cells[seed] & OPEN) != 0) {
+                continue;
+            }
+            int rowStart = seed - seed % cols;
+            int rowEnd = rowStart + cols - 1;
+            //Estende a faixa de células vazias para a esquerda e para a direita da semente
+            int left = seed;
+            while (left > rowStart && isClosedEmpty(left - 1)) {
+                left--;
+            }
+            int right = seed;
+            while (right < rowEnd && isClosedEmpty(right + 1)) {
+                right++;
+            }
+            for (int index = left; index <= right; index++) {
+                openCell(index);
+            }
+            int first = Math.max(left - 1, rowStart);
+            int last = Math.min(right + 1, rowEnd);
+            revealBorder(first);
+            revealBorder(last);
+            //Nas linhas vizinhas abre os números e guarda uma semente por cada sequência de células vazias
+            for (int offset = -cols; offset <= cols; offset += 2 * cols) {
+                if (rowStart + offset < 0 || rowStart + offset >= cells.length) {
+                    continue;
+                }
+                boolean inRun = false;
+                for (int index = first + offset; index <= last + offset; index++) {
+                    int cell = cells[index];
+                    if ((cell & (OPEN | BOMB)) != 0) {
+                        inRun = false;
+                    } else if ((cell & COUNT) > 0) {
+                        openCell(index);
+                        inRun = false;
+                    } else if (!inRun) {
+                        if (seedCount == seeds.length) {
+                            seeds = Arrays.copyOf(seeds, seeds.length * 2);
+                        }
+                        seeds[seedCount++] = index;
+                        inRun = true;
+                    }
+                }
+            }
+        }
+        return revealedCount - before;
+    }
+
+    /**
+     * Verifica se uma célula ainda fechada não tem bomba nem bombas adjacentes.
+     * @param index o índice da célula
+     * @return verdadeiro se a célula está fechada e vazia
+     */
+    private boolean isClosedEmpty(int index) {
+        return (cells[index] & (OPEN | BOMB | COUNT)) == 0;
+    }
+
+    /**
+     * Abre uma célula da borda numerada de uma faixa vazia, se ainda estiver fechada e não tiver bomba.
+     * @param index o índice da célula
+     */
+    private void revealBorder(int index) {
+        if ((cells[index] & (OPEN | BOMB)) == 0) {
+            openCell(index);
+        }
+    }
+
+    /**
+     * Abre uma célula sem bomba e acrescenta-a à lista de células reveladas.
+     * @param index o índice da célula
+     */
+    private void openCell(int index) {
+        if ((cells[index] & FLAG) != 0) {
+            totalFlags++;
+            wrongFlags--;
+        }
+        touch(index);
+        cells[index] = (byte) ((cells[index] & COUNT) | OPEN);
+        positionsWithoutBombs--;
+        if (hintPositions != null) {
+            removeHint(index);
+        }
+        if (revealedCount == revealed.length) {
+            revealed = Arrays.copyOf(revealed, Math.min(revealed.length * 2, cells.length));
+        }
+        revealed[revealedCount++] = index;
+        revealedFrom = Math.min(revealedFrom, index);
+        revealedTo = Math.max(revealedTo, index + 1);
+    }
+
+    /**
+     * Esvazia a lista de células reveladas, no início de uma jogada que revela células.
+     */
+    private void clearRevealed() {
+        revealedCount = 0;
+        revealedFrom = Integer.MAX_VALUE;
+        revealedTo = 0;
+    }
+
+    /**
+     * Retorna as células abertas pela última jogada que revelou células ({@link #revealAround(int, int)}, /open,
+     * /chord ou dica), pela ordem em que foram abertas.
+     * O array é reutilizado entre jogadas; apenas as primeiras {@link #getRevealedCount()} posições são válidas.
+     * Cada valor é o índice row * cols + col da célula.
+     * @return o array de índices das células abertas
+     */
+    public int[] getRevealedCells() {
+        return revealed;
+    }
+
+    /**
+     * @return a quantidade de células abertas pela última jogada que revelou células
+     */
+    public int getRevealedCount() {
+        return revealedCount;
+    }
+
+    /**
+     * @return o menor índice das células abertas pela última jogada que revelou células (0 se nenhuma foi aberta)
+     */
+    public int getRevealedFrom() {
+        return revealedCount == 0 ? 0 : revealedFrom;
+    }
+
+    /**
+     * @return o índice a seguir ao maior das células abertas pela última jogada que revelou células
+     * (0 se nenhuma foi aberta)
+     */
+    public int getRevealedTo() {
+        return revealedTo;
+    }
+
+    /**
+     * Marca todas as bombas do tabuleiro como visíveis (as que têm bandeira continuam a mostrar a bandeira).
+     * Utilizada pelo comando /cheat; conta como uma jogada no histórico, se houver, para poder ser desfeita.
+     */
+    public void showBombs() {
+        record();
+        revealBombs();
+        publish();
+    }
+
+    /**
+     * Marca todas as bombas como visíveis, como parte da jogada em curso.
+     */
+    private void revealBombs() {
+        for (int i = 0; i < cells.length; i++) {
+            if ((cells[i] & BOMB) != 0) {
+                touch(i);
+                cells[i] |= SHOWN;
+            }
+        }
+    }
+
+    /**
+     * Coloca uma bandeira numa célula fechada.
+     * Se a célula tiver bomba, conta como uma bomba adivinhada.
+     * @param index o índice da célula
+     */
+    private void placeFlag(int index) {
+        int cell = cells[index];
+        touch(index);
+        cells[index] = (byte) (cell | FLAG);
+        totalFlags--;
+        if ((cell & BOMB) != 0) {
+            guessedBombs++;
+        } else {
+            wrongFlags++;
+        }
+        if (hintPositions != null) {
+            removeHint(index);
+        }
+    }
+
+    /**
+     * Retira a bandeira de uma célula.
+     * @param index o índice da célula
+     */
+    private void removeFlag(int index) {
+        int cell = cells[index];
+        touch(index);
+        cells[index] = (byte) (cell & ~FLAG);
+        totalFlags++;
+        if ((cell & BOMB) != 0) {
+            guessedBombs--;
+        } else {
+            wrongFlags--;
+        }
+        if (hintPositions != null) {
+            addHint(index);
+        }
+    }
+
+    /**
+     * Define o nome do jogador.
+     * Se o nome for vazio, o nome é definido como "Anonymous" seguido pelo número de anonymousCount.
+     * @param newName o nome escrito pelo jogador
+     * @return o nome do jogador
+     */
+    public String setName(String newName) {
+        name = newName;
+        if (name.isEmpty()) {
+            name = "Anonymous " + anonymousCount.incrementAndGet();
+        }
+        return name;
+    }
+
+    /**
+     * Retorna o tempo decorrido desde o tempo inicial, medido pelo relógio monotónico (System.nanoTime), que
+     * não salta quando o relógio do sistema é acertado.
+     * @return o tempo decorrido em milisegundos
+     */
+    public long getElapsed() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    /**
+     * @return o tempo decorrido em formato de horas, minutos e segundos
+     */
+    public String time(){
+        return formatTime(getElapsed());
+    }
+
+    /**
+     * Formata um tempo em horas, minutos e segundos.
+     * @param millis o tempo em milisegundos
+     * @return o tempo no formato 00h:00m:00s
+     */
+    public static String formatTime(long millis) {
+        StringBuilder text = new StringBuilder(12);
+        appendTwoDigits(text, millis / 3600000).append("h:");
+        appendTwoDigits(text, (millis % 3600000) / 60000).append("m:");
+        return appendTwoDigits(text, (millis % 60000) / 1000).append('s').toString();
+    }
+
+    private static StringBuilder appendTwoDigits(StringBuilder text, long value) {
+        if (value < 10) {
+            text.append('0');
+        }
+        return text.append(value);
+    }
+
+    /**
+     * Guarda a vitória do jogador, com o tempo decorrido e a configuração do tabuleiro, na tabela de vencedores.
+     * Para ser vizualizada no menu dos 10 ultimos vencedores e nos melhores tempos.
+     * @throws java.io.UncheckedIOException se não for possível guardar a vitória no ficheiro da tabela
+     */
+    public void addWinners(){
+        leaderboard.add(name, rows, cols, amountBombs, getElapsed());
+    }
+}
@@ -0,0 +1,17 @@
+package minesweeper;
+
+/**
+ * Recebe as mudanças de estado de um {@link Game}, por exemplo para atualizar uma interface ou guardar
+ * estatísticas sem ter de verificar o jogo depois de cada jogada.
+ * É chamado na thread que fez a jogada, depois de o estado ter mudado. Desfazer e refazer jogadas
+ * ({@link Game#undo()} e {@link Game#redo()}) repõe o estado sem chamar os ouvintes.
+ */
+@FunctionalInterface
+public interface GameListener {
+    /**
+     * @param game o jogo
+     * @param previous o estado anterior
+     * @param state o novo estado
+     */
+    void stateChanged(Game game, GameState previous, GameState state);
+}
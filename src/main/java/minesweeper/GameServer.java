@@ -0,0 +1,440 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Servidor TCP que permite jogar várias sessões de MineSweeper em simultâneo com um protocolo de linhas de texto.
+ * Cada ligação tem a sua sessão no {@link SessionManager}, com um tabuleiro retirado de uma {@link BoardPool}.
+ * As ligações são distribuídas por várias threads, cada uma com o seu Selector (I/O não bloqueante), e cada sessão
+ * é sempre tratada pela mesma thread, por isso não há locks no caminho das jogadas.
+ * <p>
+ * Comandos (um por linha), com a mesma sintaxe de coordenadas do Menu:
+ * <ul>
+ *   <li>/new [linhas colunas bombas] - Começa um novo jogo (9 9 10 por omissão, no máximo {@value #MAX_CELLS}
+ *   células); responde "SESSION &lt;id&gt;", ou "ERROR invalid board" se o tabuleiro não for válido.</li>
+ *   <li>/open &lt;linha&gt; &lt;coluna&gt;, /flag &lt;linha&gt; &lt;coluna&gt;, /chord &lt;linha&gt; &lt;coluna&gt;, /hint
+ *   - Jogadas; respondem com o {@link MoveResult} (por exemplo "OK", "WIN" ou "LOSE").</li>
+ *   <li>/board - Envia o tabuleiro, terminado por uma linha "END".</li>
+ *   <li>/stats - Envia as {@link Metrics} do motor (de todas as sessões), terminadas por uma linha "END".</li>
+ *   <li>/quit - Termina a sessão e fecha a ligação.</li>
+ * </ul>
+ * Uma linha com mais de {@value #MAX_LINE_LENGTH} bytes fecha a ligação. Enquanto uma ligação tiver mais de
+ * {@value #MAX_PENDING_OUTPUT} bytes de respostas por enviar, os seus comandos seguintes ficam por ler até o
+ * cliente receber as respostas, por isso um cliente que não lê não faz crescer a memória do servidor.
+ * Com um {@link SpectatorServer} ({@link #setSpectators(SpectatorServer)}), cada sessão é publicada com o seu id
+ * e pode ser vista por espectadores enquanto dura.
+ */
+public class GameServer {
+    private static final int DEFAULT_PORT = 7070; //Porta usada quando nenhuma é indicada
+    private static final int SPECTATOR_RING_BYTES = 64 * 1024; //Buffer circular das mudanças de cada sessão
+    private static final int POOL_BOARDS = 64; //Tabuleiros prontos guardados por cada tamanho
+    static final int MAX_CELLS = 1 << 22; //Células no máximo de um tabuleiro pedido por /new
+    static final int MAX_LINE_LENGTH = 1024; //Bytes no máximo de uma linha de comando; acima disto a ligação é fechada
+    static final int MAX_PENDING_OUTPUT = 1 << 20; //Bytes por enviar acima dos quais a ligação deixa de ser lida
+    private final SessionManager sessions; //Jogos em curso
+    private final ServerSocketChannel server; //Canal que aceita as ligações
+    private final Worker[] workers; //Threads que tratam as ligações
+    private volatile SpectatorServer spectators; //Servidor que transmite as sessões aos espectadores, ou null
+
+    /**
+     * Cria o servidor e abre a porta indicada.
+     * @param port a porta TCP (0 para escolher uma porta livre)
+     * @param threads o número de threads que tratam as ligações
+     * @throws IOException se não for possível abrir a porta
+     */
+    public GameServer(int port, int threads) throws IOException {
+        this(port, threads, null);
+    }
+
+    /**
+     * Cria o servidor e abre a porta indicada, registando as jogadas de cada sessão num diário.
+     * @param port a porta TCP (0 para escolher uma porta livre)
+     * @param threads o número de threads que tratam as ligações
+     * @param journalDirectory a pasta dos diários das sessões, ou null para não registar as jogadas
+     * @throws IOException se não for possível abrir a porta ou criar a pasta dos diários
+     */
+    public GameServer(int port, int threads, Path journalDirectory) throws IOException {
+        if (journalDirectory != null) {
+            Files.createDirectories(journalDirectory);
+        }
+        sessions = new SessionManager(journalDirectory, new BoardPool(POOL_BOARDS, 1, BoardPool.Preset.values()));
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 1024);
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker();
+        }
+    }
+
+    /**
+     * @return a porta onde o servidor está a aceitar ligações
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * @return o gestor das sessões do servidor
+     */
+    public SessionManager getSessions() {
+        return sessions;
+    }
+
+    /**
+     * Define o servidor dos espectadores onde as sessões criadas a seguir são publicadas.
+     * @param spectators o servidor, ou null para não publicar as sessões
+     */
+    public void setSpectators(SpectatorServer spectators) {
+        this.spectators = spectators;
+    }
+
+    /**
+     * Termina uma sessão e deixa de a publicar aos espectadores.
+     * @param id o id da sessão
+     * @throws UncheckedIOException se não for possível escrever o diário da sessão
+     */
+    private void end(long id) {
+        SpectatorServer spectatorServer = spectators;
+        if (spectatorServer != null) {
+            spectatorServer.unpublish(id);
+        }
+        sessions.remove(id);
+    }
+
+    /**
+     * Inicia as threads das ligações e aceita ligações na thread atual, distribuindo-as pelas threads em rotação.
+     * @throws IOException se ocorrer um erro ao aceitar ligações
+     */
+    public void serve() throws IOException {
+        for (int i = 0; i < workers.length; i++) {
+            Thread thread = new Thread(workers[i], "game-server-" + i);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        int next = 0;
+        while (server.isOpen()) {
+            SocketChannel channel = server.accept();
+            workers[next].register(channel);
+            next = (next + 1) % workers.length;
+        }
+    }
+
+    /**
+     * Thread que trata um grupo de ligações com um único Selector.
+     * As sessões destas ligações só são usadas por esta thread.
+     */
+    private class Worker implements Runnable {
+        private final Selector selector; //Selector das ligações desta thread
+        private final ConcurrentLinkedQueue<SocketChannel> pending = new ConcurrentLinkedQueue<>(); //Ligações por registar
+        private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(8192); //Buffer de leitura, reutilizado
+        private Connection current; //Ligação cuja resposta está a ser escrita
+        private final BoardRenderer renderer = new BoardRenderer(new OutputStream() {
+            @Override
+            public void write(int b) {
+                current.append((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                current.append(b, off, len);
+            }
+        });
+
+        Worker() throws IOException {
+            selector = Selector.open();
+        }
+
+        /**
+         * Entrega uma nova ligação a esta thread.
+         */
+        void register(SocketChannel channel) {
+            pending.add(channel);
+            selector.wakeup();
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                try {
+                    selector.select();
+                    SocketChannel channel;
+                    while ((channel = pending.poll()) != null) {
+                        channel.configureBlocking(false);
+                        channel.register(selector, SelectionKey.OP_READ, new Connection());
+                    }
+                    Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        SelectionKey key = keys.next();
+                        keys.remove();
+                        handle(key);
+                    }
+                } catch (IOException e) {
+                    System.err.println("Server error: " + e.getMessage());
+                }
+            }
+        }
+
+        /**
+         * Lê os comandos disponíveis de uma ligação, responde a cada um e escreve as respostas.
+         */
+        private void handle(SelectionKey key) {
+            SocketChannel channel = (SocketChannel) key.channel();
+            Connection connection = (Connection) key.attachment();
+            try {
+                if (connection.unread != null && connection.outLength < MAX_PENDING_OUTPUT) {
+                    ByteBuffer unread = ByteBuffer.wrap(connection.unread);
+                    connection.unread = null;
+                    process(connection, unread);
+                }
+                if (key.isReadable() && connection.unread == null && connection.outLength < MAX_PENDING_OUTPUT) {
+                    readBuffer.clear();
+                    int read = channel.read(readBuffer);
+                    if (read < 0) {
+                        close(key, connection);
+                        return;
+                    }
+                    readBuffer.flip();
+                    process(connection, readBuffer);
+                }
+                connection.flushTo(channel);
+                if (connection.closing && connection.outLength == 0) {
+                    close(key, connection);
+                } else if (connection.unread != null || connection.outLength >= MAX_PENDING_OUTPUT) {
+                    //O cliente não está a receber as respostas: só volta a ser lido quando as receber
+                    key.interestOps(SelectionKey.OP_WRITE);
+                } else {
+                    key.interestOps(connection.outLength > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+                }
+            } catch (IOException e) {
+                close(key, connection);
+            } catch (RuntimeException e) {
+                //Um erro num comando só fecha a ligação que o enviou; as outras ligações desta thread continuam
+                System.err.println("Connection error: " + e);
+                close(key, connection);
+            }
+        }
+
+        /**
+         * Executa os comandos completos que estão no buffer. Se as respostas por enviar passarem de
+         * {@value #MAX_PENDING_OUTPUT} bytes, o resto do buffer é guardado na ligação para ser executado depois.
+         * @throws IOException se uma linha passar de {@value #MAX_LINE_LENGTH} bytes
+         */
+        private void process(Connection connection, ByteBuffer input) throws IOException {
+            while (input.hasRemaining()) {
+                if (connection.outLength >= MAX_PENDING_OUTPUT) {
+                    connection.unread = new byte[input.remaining()];
+                    input.get(connection.unread);
+                    return;
+                }
+                byte b = input.get();
+                if (b == '\n') {
+                    String line = new String(connection.line, 0, connection.lineLength, StandardCharsets.UTF_8);
+                    connection.lineLength = 0;
+                    execute(connection, line.trim());
+                } else if (b != '\r') {
+                    connection.appendToLine(b);
+                }
+            }
+        }
+
+        /**
+         * Executa um comando de uma ligação e acrescenta a resposta ao buffer de saída.
+         */
+        private void execute(Connection connection, String line) {
+            String[] command = line.split(" +");
+            Game game = sessions.get(connection.sessionId);
+            switch (command[0]) {
+                case "/new":
+                    try {
+                        if (connection.sessionId != 0) {
+                            end(connection.sessionId);
+                        }
+                        if (command.length == 4) {
+                            int rows = Integer.parseInt(command[1]);
+                            int cols = Integer.parseInt(command[2]);
+                            if ((long) rows * cols > MAX_CELLS) {
+                                throw new IllegalArgumentException("Board too large: " + rows + "x" + cols);
+                            }
+                            connection.sessionId = sessions.create(rows, cols, Integer.parseInt(command[3]));
+                        } else {
+                            connection.sessionId = sessions.create(9, 9, 10);
+                        }
+                        SpectatorServer spectatorServer = spectators;
+                        if (spectatorServer != null) {
+                            spectatorServer.publish(connection.sessionId, sessions.get(connection.sessionId));
+                        }
+                        connection.println("SESSION " + connection.sessionId);
+                    } catch (IllegalArgumentException e) {
+                        connection.sessionId = 0;
+                        connection.println("ERROR invalid board");
+                    } catch (UncheckedIOException e) {
+                        connection.sessionId = 0;
+                        connection.println("ERROR journal unavailable");
+                    }
+                    return;
+                case "/quit":
+                    connection.println("BYE");
+                    connection.closing = true;
+                    return;
+                case "/stats":
+                    connection.println(Metrics.get().report());
+                    connection.println("END");
+                    return;
+                default:
+                    break;
+            }
+            if (game == null) {
+                connection.println("ERROR no game, use /new");
+                return;
+            }
+            switch (command[0]) {
+                case "/open":
+                case "/flag":
+                case "/chord":
+                    if (command.length != 3) {
+                        connection.println("ERROR use " + command[0] + " <row> <column>");
+                        return;
+                    }
+                    int row = Menu.parseRow(command[1]);
+                    int col = Menu.parseColumn(command[2]);
+                    MoveResult result;
+                    if (command[0].equals("/open")) {
+                        result = game.open(row, col);
+                    } else if (command[0].equals("/flag")) {
+                        result = game.flag(row, col);
+                    } else {
+                        result = game.chord(row, col);
+                    }
+                    connection.println(result.name());
+                    break;
+                case "/hint":
+                    connection.println(game.hint().name());
+                    break;
+                case "/board":
+                    current = connection;
+                    renderer.render(game);
+                    connection.println("END");
+                    break;
+                default:
+                    connection.println("ERROR unknown command");
+            }
+        }
+
+        /**
+         * Fecha a ligação e termina a sua sessão.
+         */
+        private void close(SelectionKey key, Connection connection) {
+            if (connection.sessionId != 0) {
+                try {
+                    end(connection.sessionId);
+                } catch (UncheckedIOException e) {
+                    System.err.println("Journal error: " + e.getCause().getMessage());
+                }
+            }
+            key.cancel();
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // a ligação já está fechada
+            }
+        }
+    }
+
+    /**
+     * Estado de uma ligação: a sessão, a linha a ser lida e as respostas ainda por enviar.
+     */
+    private static class Connection {
+        private static final int OUT_SIZE = 256; //Tamanho inicial do buffer de saída
+        private long sessionId; //Id da sessão da ligação (0 se ainda não tem jogo)
+        private byte[] line = new byte[64]; //Linha a ser lida
+        private int lineLength; //Bytes da linha lidos até agora
+        private byte[] unread; //Bytes lidos e ainda por executar, enquanto há demasiadas respostas por enviar
+        private byte[] out = new byte[OUT_SIZE]; //Respostas por enviar
+        private int outLength; //Bytes por enviar
+        private boolean closing; //A ligação fecha depois de enviar as respostas
+
+        void appendToLine(byte b) throws IOException {
+            if (lineLength == line.length) {
+                if (lineLength == MAX_LINE_LENGTH) {
+                    throw new IOException("Line too long");
+                }
+                line = Arrays.copyOf(line, Math.min(line.length * 2, MAX_LINE_LENGTH));
+            }
+            line[lineLength++] = b;
+        }
+
+        void println(String text) {
+            byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+            append(bytes, 0, bytes.length);
+            append((byte) '\n');
+        }
+
+        void append(byte b) {
+            if (outLength == out.length) {
+                out = Arrays.copyOf(out, out.length * 2);
+            }
+            out[outLength++] = b;
+        }
+
+        void append(byte[] bytes, int off, int len) {
+            if (outLength + len > out.length) {
+                out = Arrays.copyOf(out, Math.max(out.length * 2, outLength + len));
+            }
+            System.arraycopy(bytes, off, out, outLength, len);
+            outLength += len;
+        }
+
+        /**
+         * Escreve no canal o que for possível sem bloquear e guarda o resto para a próxima escrita.
+         */
+        void flushTo(SocketChannel channel) throws IOException {
+            if (outLength == 0) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.wrap(out, 0, outLength);
+            channel.write(buffer);
+            int remaining = buffer.remaining();
+            System.arraycopy(out, buffer.position(), out, 0, remaining);
+            outLength = remaining;
+            if (outLength == 0 && out.length > MAX_PENDING_OUTPUT) {
+                out = new byte[OUT_SIZE]; //Não guarda o buffer de uma resposta muito grande (por exemplo /board)
+            }
+        }
+    }
+
+    /**
+     * Inicia o servidor.
+     * @param args a porta (7070 por omissão), o número de threads (um por processador por omissão),
+     * a pasta dos diários das sessões ("-" ou omitida para não haver diários) e a porta dos espectadores
+     * (sem espectadores por omissão)
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Path journals = args.length > 2 && !args[2].equals("-") ? Path.of(args[2]) : null;
+        GameServer gameServer = new GameServer(port, threads, journals);
+        if (args.length > 3) {
+            SpectatorServer spectatorServer = new SpectatorServer(Integer.parseInt(args[3]), SPECTATOR_RING_BYTES);
+            spectatorServer.start();
+            gameServer.setSpectators(spectatorServer);
+            System.out.println("Spectators can watch sessions on port " + spectatorServer.getPort());
+        }
+        Metrics.register();
+        System.out.println("MineSweeper server listening on port " + gameServer.getPort());
+        gameServer.serve();
+    }
+}
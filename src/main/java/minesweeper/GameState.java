@@ -0,0 +1,15 @@
+package minesweeper;
+
+/**
+ * Estado de um jogo, mudado pelo motor a cada jogada e comunicado aos {@link GameListener}.
+ */
+public enum GameState {
+    /** O tabuleiro está pronto e ainda não foi feita nenhuma jogada. */
+    READY,
+    /** Já foi feita pelo menos uma jogada e o jogo ainda não acabou. */
+    PLAYING,
+    /** Todas as células sem bomba foram abertas e todas as bombas têm bandeira. */
+    WON,
+    /** Foi aberta uma bomba, ou o jogo foi abandonado. */
+    LOST
+}
@@ -0,0 +1,198 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Histórico ilimitado de jogadas de um {@link Game}, para desfazer (/undo) e refazer (/redo) no modo de treino.
+ * <p>
+ * O tabuleiro é dividido em blocos de {@value #TILE_SIZE} células. Cada jogada guarda apenas uma cópia dos blocos
+ * que muda, feita antes da primeira escrita em cada bloco (copy-on-write), mais os contadores do jogo. Por isso
+ * a memória de cada passo cresce com as células mudadas e não com o tamanho do tabuleiro, e desfazer uma
+ * revelação de um milhão de células custa apenas a troca dos blocos que ela mudou.
+ * <p>
+ * Desfazer troca o conteúdo dos blocos guardados com o do tabuleiro, por isso o mesmo passo passa a guardar
+ * o estado necessário para refazer a jogada, sem novas cópias. Uma jogada nova apaga os passos por refazer.
+ */
+public class History {
+    static final int TILE_SHIFT = 8; //Bits do índice de uma célula dentro do seu bloco
+    static final int TILE_SIZE = 1 << TILE_SHIFT; //Células por bloco
+    private final List<Step> undo = new ArrayList<>(); //Passos por desfazer, do mais antigo para o mais recente
+    private final List<Step> redo = new ArrayList<>(); //Passos por refazer, do mais antigo para o mais recente
+    private Step recording; //Passo da jogada em curso, ou null fora de uma jogada
+    private int[] savedBy; //Número do último passo que guardou cada bloco, criado na primeira escrita
+    private int serial; //Número do último passo começado
+
+    /**
+     * Um passo do histórico: os blocos que uma jogada mudou e os contadores do jogo, tal como estavam antes
+     * da jogada (por desfazer) ou depois dela (por refazer).
+     */
+    static final class Step {
+        private final int serial; //Número do passo
+        private int[] state; //Contadores do jogo, no formato de Game
+        private int[] tiles = new int[4]; //Blocos guardados
+        private byte[][] contents = new byte[4][]; //Conteúdo de cada bloco guardado
+        private int count; //Quantidade de blocos guardados
+
+        Step(int serial, int[] state) {
+            this.serial = serial;
+            this.state = state;
+        }
+
+        /**
+         * Troca o conteúdo dos blocos guardados com o do tabuleiro.
+         * @param cells o tabuleiro
+         */
+        void swapTiles(byte[] cells) {
+            for (int k = 0; k < count; k++) {
+                byte[] content = contents[k];
+                int offset = tiles[k] << TILE_SHIFT;
+                for (int i = 0; i < content.length; i++) {
+                    byte cell = cells[offset + i];
+                    cells[offset + i] = content[i];
+                    content[i] = cell;
+                }
+            }
+        }
+
+        /**
+         * Troca os contadores guardados pelos indicados.
+         * @param current os contadores atuais do jogo
+         * @return os contadores guardados
+         */
+        int[] swapState(int[] current) {
+            int[] saved = state;
+            state = current;
+            return saved;
+        }
+
+        /**
+         * @return a quantidade de blocos guardados
+         */
+        int tileCount() {
+            return count;
+        }
+
+        /**
+         * @param k a posição do bloco no passo
+         * @return o índice da primeira célula do bloco
+         */
+        int tileStart(int k) {
+            return tiles[k] << TILE_SHIFT;
+        }
+
+        /**
+         * @param k a posição do bloco no passo
+         * @return o índice seguinte à última célula do bloco
+         */
+        int tileEnd(int k) {
+            return (tiles[k] << TILE_SHIFT) + contents[k].length;
+        }
+
+        /**
+         * @return a quantidade de células guardadas
+         */
+        long cells() {
+            long total = 0;
+            for (int k = 0; k < count; k++) {
+                total += contents[k].length;
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Começa o passo de uma jogada, apagando os passos por refazer.
+     * @param state os contadores do jogo antes da jogada
+     */
+    void begin(int[] state) {
+        redo.clear();
+        recording = new Step(++serial, state);
+        undo.add(recording);
+    }
+
+    /**
+     * Guarda o bloco de uma célula antes de ela ser escrita, se o passo em curso ainda não o guardou.
+     * Fora de uma jogada não faz nada.
+     * @param cells o tabuleiro
+     * @param index o índice da célula que vai ser escrita
+     */
+    void save(byte[] cells, int index) {
+        Step step = recording;
+        if (step == null) {
+            return;
+        }
+        int tile = index >>> TILE_SHIFT;
+        if (savedBy == null) {
+            savedBy = new int[(cells.length + TILE_SIZE - 1) >>> TILE_SHIFT];
+        }
+        if (savedBy[tile] == step.serial) {
+            return;
+        }
+        savedBy[tile] = step.serial;
+        if (step.count == step.tiles.length) {
+            step.tiles = Arrays.copyOf(step.tiles, step.count * 2);
+            step.contents = Arrays.copyOf(step.contents, step.count * 2);
+        }
+        int from = tile << TILE_SHIFT;
+        step.tiles[step.count] = tile;
+        step.contents[step.count++] = Arrays.copyOfRange(cells, from, Math.min(from + TILE_SIZE, cells.length));
+    }
+
+    /**
+     * Termina o passo em curso e retira o passo mais recente por desfazer, que passa a ser o primeiro por refazer.
+     * @return o passo, ou null se não houver nenhum
+     */
+    Step undo() {
+        recording = null;
+        if (undo.isEmpty()) {
+            return null;
+        }
+        Step step = undo.remove(undo.size() - 1);
+        redo.add(step);
+        return step;
+    }
+
+    /**
+     * Termina o passo em curso e retira o passo mais recente por refazer, que volta a ser o último por desfazer.
+     * @return o passo, ou null se não houver nenhum
+     */
+    Step redo() {
+        recording = null;
+        if (redo.isEmpty()) {
+            return null;
+        }
+        Step step = redo.remove(redo.size() - 1);
+        undo.add(step);
+        return step;
+    }
+
+    /**
+     * @return a quantidade de jogadas que podem ser desfeitas
+     */
+    public int getUndoCount() {
+        return undo.size();
+    }
+
+    /**
+     * @return a quantidade de jogadas que podem ser refeitas
+     */
+    public int getRedoCount() {
+        return redo.size();
+    }
+
+    /**
+     * @return as células guardadas por todos os passos, para medir a memória usada pelo histórico
+     */
+    public long getStoredCells() {
+        long total = 0;
+        for (Step step : undo) {
+            total += step.cells();
+        }
+        for (Step step : redo) {
+            total += step.cells();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,120 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Diário binário das jogadas de um jogo, que permite reproduzir o jogo com o {@link Replay}.
+ * <p>
+ * Começa com um cabeçalho: magic (int), versão (byte), linhas, colunas e bombas (varint), a semente usada em
+ * {@link Game#fillBombs(long)} (long), a célula da primeira jogada garantida mais um (varint, 0 se não houver)
+ * e a hora de início em milissegundos desde 1970 (long). Cada jogada ocupa depois dois varints:
+ * (índice da célula &lt;&lt; 3 | operação) e os milissegundos desde a jogada anterior, por isso uma jogada num
+ * tabuleiro pequeno ocupa normalmente 2 a 4 bytes.
+ * As jogadas são acumuladas num buffer e escritas em blocos; {@link #close()} escreve o que faltar.
+ * Só são registadas as jogadas aceites pelo motor; numa dica fica registada a célula revelada.
+ */
+public class Journal implements Closeable {
+    static final int MAGIC = 0x4D534A4E; //"MSJN"
+    static final byte VERSION = 1; //Versão do formato
+    static final int OPEN = 0; //Operação /open
+    static final int FLAG = 1; //Operação /flag (colocar ou retirar)
+    static final int CHORD = 2; //Operação /chord
+    static final int HINT = 3; //Operação /hint, com a célula revelada
+    private static final int BUFFER_SIZE = 4096; //Tamanho do bloco escrito de cada vez
+    private final WritableByteChannel channel; //Canal onde o diário é escrito
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE); //Jogadas ainda por escrever
+    private long lastTime; //Hora da última jogada registada, em milissegundos
+
+    /**
+     * Começa um diário num canal, escrevendo o cabeçalho do jogo.
+     * O jogo tem de ter as bombas colocadas a partir de uma semente e ainda não ter jogadas.
+     * @param channel o canal onde o diário é escrito (fechado por {@link #close()})
+     * @param game o jogo
+     */
+    public Journal(WritableByteChannel channel, Game game) {
+        this.channel = channel;
+        this.lastTime = System.currentTimeMillis();
+        buffer.putInt(MAGIC).put(VERSION);
+        putVarint(game.getRows());
+        putVarint(game.getCols());
+        putVarint(game.getAmountBombs());
+        buffer.putLong(game.getSeed());
+        putVarint(game.getStartCell() + 1);
+        buffer.putLong(lastTime);
+    }
+
+    /**
+     * Cria um ficheiro para o diário de um jogo.
+     * @param file o ficheiro (substituído se já existir)
+     * @param game o jogo
+     * @return o diário
+     * @throws IOException se não for possível criar o ficheiro
+     */
+    public static Journal create(Path file, Game game) throws IOException {
+        return new Journal(FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), game);
+    }
+
+    /**
+     * Regista uma jogada.
+     * @param op a operação (OPEN, FLAG, CHORD ou HINT)
+     * @param cell o índice da célula
+     * @throws UncheckedIOException se o buffer encher e não for possível escrevê-lo
+     */
+    void record(int op, int cell) {
+        if (buffer.remaining() < 15) {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        long now = System.currentTimeMillis();
+        putVarint(((long) cell << 3) | op);
+        putVarint(Math.max(now - lastTime, 0));
+        lastTime = now;
+    }
+
+    /**
+     * Escreve no canal as jogadas acumuladas.
+     * @throws IOException se não for possível escrever
+     */
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Escreve as jogadas que faltam e fecha o canal.
+     * @throws IOException se não for possível escrever
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Escreve um número sem sinal em grupos de 7 bits, do menos para o mais significativo.
+     */
+    private void putVarint(long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        buffer.put((byte) value);
+    }
+}
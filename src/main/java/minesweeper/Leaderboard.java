@@ -0,0 +1,300 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Tabela de vencedores persistente.
+ * Cada vitória é acrescentada ao fim de um ficheiro como um registo binário de tamanho fixo (nunca é reescrita).
+ * Em memória ficam apenas os {@link #TOP} melhores tempos de cada configuração de tabuleiro
+ * (linhas, colunas e bombas) e as últimas {@link #LAST} vitórias, por isso as consultas são leituras de
+ * arrays já ordenados, sem locks, qualquer que seja o tamanho do ficheiro.
+ * Ao abrir, o ficheiro é mapeado em memória e percorrido uma vez para reconstruir esses índices; só os nomes
+ * dos registos que entram num índice são descodificados.
+ * <p>
+ * Formato do ficheiro: um cabeçalho de {@value #HEADER_SIZE} bytes (magic, versão) seguido de registos de
+ * {@value #RECORD_SIZE} bytes: linhas, colunas, bombas (int), tempo em milissegundos, data da vitória em
+ * milissegundos desde 1970 (long), tamanho do nome (byte) e o nome em UTF-8.
+ */
+public class Leaderboard implements Closeable {
+    public static final int TOP = 10; //Melhores tempos guardados por configuração
+    public static final int LAST = 10; //Últimas vitórias guardadas
+    static final int HEADER_SIZE = 16; //Tamanho do cabeçalho do ficheiro
+    static final int RECORD_SIZE = 64; //Tamanho de cada registo
+    private static final int MAGIC = 0x4D534C42; //"MSLB"
+    private static final int VERSION = 1; //Versão do formato
+    private static final int NAME_SIZE = RECORD_SIZE - 29; //Bytes disponíveis para o nome
+    private final FileChannel channel; //Ficheiro dos registos, ou null se a tabela for só em memória
+    private final ByteBuffer record = ByteBuffer.allocate(RECORD_SIZE); //Registo a escrever, reutilizado
+    private final ConcurrentHashMap<Board, Entry[]> best = new ConcurrentHashMap<>(); //Melhores tempos por configuração
+    private volatile Entry[] last = new Entry[0]; //Últimas vitórias, da mais antiga para a mais recente
+    private long size; //Quantidade de registos
+
+    /**
+     * Cria uma tabela só em memória, que se perde quando o programa termina.
+     */
+    public Leaderboard() {
+        this.channel = null;
+    }
+
+    /**
+     * Abre (ou cria) a tabela guardada num ficheiro e reconstrói os índices em memória.
+     * Um registo incompleto no fim do ficheiro (por exemplo depois de uma falha a meio de uma escrita) é descartado.
+     * @param file o ficheiro da tabela
+     * @throws IOException se não for possível ler ou escrever o ficheiro, ou se não for uma tabela de vencedores
+     * válida
+     */
+    public Leaderboard(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() < HEADER_SIZE) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+                channel.truncate(0);
+                channel.write(header.flip(), 0);
+                channel.force(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+                channel.read(header, 0);
+                if (header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                    throw new IOException("Not a leaderboard file: " + file);
+                }
+            }
+            long records = (channel.size() - HEADER_SIZE) / RECORD_SIZE;
+            channel.truncate(HEADER_SIZE + records * RECORD_SIZE);
+            load(records);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Percorre os registos do ficheiro, mapeado em memória por blocos, e preenche os índices.
+     * @param records a quantidade de registos
+     */
+    private void load(long records) throws IOException {
+        long perChunk = Integer.MAX_VALUE / RECORD_SIZE; //Registos por bloco mapeado
+        for (long first = 0; first < records; first += perChunk) {
+            int count = (int) Math.min(perChunk, records - first);
+            MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_ONLY,
+                    HEADER_SIZE + first * RECORD_SIZE, (long) count * RECORD_SIZE);
+            for (int i = 0; i < count; i++) {
+                int offset = i * RECORD_SIZE;
+                Board board = new Board(chunk.getInt(offset), chunk.getInt(offset + 4), chunk.getInt(offset + 8));
+                long millis = chunk.getLong(offset + 12);
+                Entry[] top = best.get(board);
+                boolean isLast = first + i >= records - LAST;
+                if (isLast || top == null || top.length < TOP || millis < top[top.length - 1].millis) {
+                    Entry entry = read(chunk, offset, board, millis, first + i);
+                    index(entry);
+                }
+            }
+        }
+        size = records;
+    }
+
+    /**
+     * Descodifica um registo.
+     * @throws IOException se o tamanho do nome do registo não for válido
+     */
+    private static Entry read(ByteBuffer buffer, int offset, Board board, long millis, long number) throws IOException {
+        long date = buffer.getLong(offset + 20);
+        int length = buffer.get(offset + 28);
+        if (length < 0 || length > NAME_SIZE) {
+            throw new IOException("Invalid leaderboard record " + number + ": name length " + length);
+        }
+        byte[] name = new byte[length];
+        buffer.get(offset + 29, name);
+        return new Entry(new String(name, StandardCharsets.UTF_8), board, millis, date);
+    }
+
+    /**
+     * Acrescenta uma vitória à tabela, escrevendo-a no fim do ficheiro antes de atualizar os índices.
+     * Nomes com mais de {@value #NAME_SIZE} bytes em UTF-8 são cortados.
+     * @param name o nome do jogador
+     * @param rows as linhas do tabuleiro
+     * @param cols as colunas do tabuleiro
+     * @param bombs as bombas do tabuleiro
+     * @param millis o tempo do jogo em milissegundos
+     * @return a vitória acrescentada
+     * @throws UncheckedIOException se não for possível escrever no ficheiro
+     */
+    public synchronized Entry add(String name, int rows, int cols, int bombs, long millis) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int length = bytes.length;
+        if (length > NAME_SIZE) {
+            length = NAME_SIZE;
+            while ((bytes[length] & 0xC0) == 0x80) {
+                length--; //não corta um carácter a meio
+            }
+        }
+        Entry entry = new Entry(new String(bytes, 0, length, StandardCharsets.UTF_8),
+                new Board(rows, cols, bombs), millis, System.currentTimeMillis());
+        if (channel != null) {
+            record.clear();
+            record.putInt(rows).putInt(cols).putInt(bombs).putLong(millis).putLong(entry.date)
+                    .put((byte) length).put(bytes, 0, length);
+            record.position(RECORD_SIZE).flip();
+            try {
+                long position = HEADER_SIZE + size * RECORD_SIZE;
+                while (record.hasRemaining()) {
+                    position += channel.write(record, position);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        size++;
+        index(entry);
+        return entry;
+    }
+
+    /**
+     * Coloca uma vitória nos índices em memória. Os arrays publicados nunca são alterados, são substituídos
+     * por cópias, por isso as consultas podem ser feitas por outras threads sem locks.
+     * @param entry a vitória
+     */
+    private void index(Entry entry) {
+        Entry[] top = best.getOrDefault(entry.board, new Entry[0]);
+        int position = top.length;
+        while (position > 0 && entry.millis < top[position - 1].millis) {
+            position--;
+        }
+        if (position < TOP) {
+            Entry[] updated = new Entry[Math.min(top.length + 1, TOP)];
+            System.arraycopy(top, 0, updated, 0, position);
+            updated[position] = entry;
+            System.arraycopy(top, position, updated, position + 1, updated.length - position - 1);
+            best.put(entry.board, updated);
+        }
+        Entry[] recent = Arrays.copyOfRange(last, Math.max(last.length + 1 - LAST, 0), last.length + 1);
+        recent[recent.length - 1] = entry;
+        last = recent;
+    }
+
+    /**
+     * Retorna os melhores tempos de uma configuração de tabuleiro.
+     * @param rows as linhas do tabuleiro
+     * @param cols as colunas do tabuleiro
+     * @param bombs as bombas do tabuleiro
+     * @return até {@link #TOP} vitórias, da mais rápida para a mais lenta
+     */
+    public List<Entry> best(int rows, int cols, int bombs) {
+        Entry[] top = best.get(new Board(rows, cols, bombs));
+        return top == null ? List.of() : List.of(top);
+    }
+
+    /**
+     * @return até {@link #LAST} vitórias, da mais antiga para a mais recente
+     */
+    public List<Entry> lastWins() {
+        return List.of(last);
+    }
+
+    /**
+     * @return a quantidade de vitórias guardadas
+     */
+    public synchronized long size() {
+        return size;
+    }
+
+    /**
+     * Fecha o ficheiro da tabela.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    /**
+     * Configuração de um tabuleiro: linhas, colunas e bombas.
+     */
+    private static final class Board {
+        private final int rows; //Linhas
+        private final int cols; //Colunas
+        private final int bombs; //Bombas
+
+        Board(int rows, int cols, int bombs) {
+            this.rows = rows;
+            this.cols = cols;
+            this.bombs = bombs;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Board)) {
+                return false;
+            }
+            Board board = (Board) other;
+            return rows == board.rows && cols == board.cols && bombs == board.bombs;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(rows, cols, bombs);
+        }
+    }
+
+    /**
+     * Uma vitória guardada na tabela.
+     */
+    public static final class Entry {
+        private final String name; //Nome do jogador
+        private final Board board; //Configuração do tabuleiro
+        private final long millis; //Tempo do jogo em milissegundos
+        private final long date; //Data da vitória em milissegundos desde 1970
+
+        Entry(String name, Board board, long millis, long date) {
+            this.name = name;
+            this.board = board;
+            this.millis = millis;
+            this.date = date;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public int getRows() {
+            return board.rows;
+        }
+
+        public int getCols() {
+            return board.cols;
+        }
+
+        public int getBombs() {
+            return board.bombs;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        public long getDate() {
+            return date;
+        }
+
+        /**
+         * @return o nome do jogador e o tempo, como aparecem na lista dos últimos vencedores
+         */
+        @Override
+        public String toString() {
+            return name + " --> " + Game.formatTime(millis);
+        }
+    }
+}
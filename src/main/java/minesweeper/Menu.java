@@ -0,0 +1,523 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.InputMismatchException;
+import java.util.Scanner;
+
+/**
+ * Classe que representa o menu principal do jogo.
+ * A classe lida com a exibição do menu de opções ao usuário e permite ao jogador escolher entre iniciar um novo jogo,
+ * visualizar os últimos 10 vencedores, continuar um jogo guardado, jogar num tabuleiro sem limites, treinar com
+ * jogadas que podem ser desfeitas ou sair do jogo.
+ * Essa classe também implementa a lógica para processar as opções do jogador.
+ * É apenas um adaptador de consola: lê os comandos, chama o motor ({@link Game}) e mostra o resultado de cada jogada.
+ */
+public class Menu {
+    private static final String LEADERBOARD_FILE = "leaderboard.dat"; //Ficheiro onde as vitórias são guardadas
+    private static final String SAVE_FILE = "minesweeper.save"; //Ficheiro usado por /save e /load sem argumentos
+    private static final Path JOURNAL_DIRECTORY = Path.of("journals"); //Pasta dos diários das jogadas
+    private static final Scanner sc = new Scanner(System.in); //Único leitor da consola, partilhado por todo o menu
+    private static final BoardRenderer renderer = new BoardRenderer(System.out); //Desenha o tabuleiro na consola
+    private static final BoardPool boards = new BoardPool(2, 1, BoardPool.Preset.BEGINNER); //Tabuleiros do menu
+    private static Game newGame; //Instância do jogo
+
+    /**
+     * Mostra o menu do jogo e aguarda a escolha do usuário, até que o usuário escolha sair.
+     * O usuário pode escolher entre iniciar um novo jogo, ver os últimos 10 vencedores, continuar o jogo
+     * guardado com /save, jogar num tabuleiro sem limites, treinar ou sair do jogo.
+     * A opção escolhida é processada, e se a escolha for válida, a ação correspondente é executada.
+     * Quando um jogo acaba o menu é reapresentado.
+     */
+    public static void start(){
+        while (true) {
+            System.out.println("MineSweeper Game");
+            System.out.println("----------------");
+            System.out.println("1. New Game");
+            System.out.println("2. Last 10 Wins");
+            System.out.println("3. Load Game");
+            System.out.println("4. Endless Game");
+            System.out.println("5. Practice Game");
+            System.out.println("6. Exit Game");
+            System.out.print("Option> ");
+            try {
+                int choice = sc.nextInt();
+                sc.nextLine(); // limpa o resto da linha para os comandos do jogo
+                switch (choice) {
+                    case 1:
+                        startGame();
+                        break;
+                    case 2:
+                        String [] winners = Game.getWinners();
+                        if (winners[0] == null) {
+                            System.out.println("\nNo winners yet.");
+                        }
+                        else {
+                            System.out.println("\nLast 10 wins:");
+                            for (String winner : winners) {
+                                if (winner == null) {
+                                    continue;
+                                }
+                                System.out.println(winner);
+                            }
+                            System.out.println("\nBest times (9x9, 10 bombs):");
+                            for (Leaderboard.Entry entry : Game.getLeaderboard().best(9, 9, 10)) {
+                                System.out.println(entry);
+                            }
+                        }
+                        System.out.println();
+                        break;
+                    case 3:
+                        Game saved = load(SAVE_FILE);
+                        if (saved != null) {
+                            newGame = saved;
+                            renderer.render(newGame);
+                            commands(newGame.getName());
+                        }
+                        break;
+                    case 4:
+                        endlessGame();
+                        break;
+                    case 5:
+                        practiceGame();
+                        break;
+                    case 6:
+                        System.out.println("Exiting...");
+                        return;
+                    default:
+                        System.out.println("Invalid option, please choose a number between 1 and 6.\n");
+                }
+            } catch (InputMismatchException e) {
+                System.out.println("Invalid option, please choose a valid number.\n");
+                sc.next(); // limpa o valor que está no scanner para que o ciclo while não repita.
+            }
+        }
+    }
+
+    /**
+     * Inicia um novo jogo de MineSweeper.
+     * Um novo tabuleiro é criado com as dimensões e o número de bombas especificados.
+     * O jogador é solicitado a fornecer seu nome e então pode começar a jogar
+     * atraves de comandos especificos. Retorna quando o jogo acaba ou o jogador sai.
+     */
+    public static void startGame() {
+        Game taken = boards.take(BoardPool.Preset.BEGINNER); //Tabuleiro já preenchido com bombas
+        newGame = taken;
+        System.out.print("Username> ");
+        String nome = newGame.setName(sc.nextLine()); //Define o nome do jogador
+        newGame.setStartTime(System.currentTimeMillis()); //Define o tempo de inicio (começa o cronometro)
+        newGame.setJournal(openJournal(newGame)); //Regista as jogadas para poderem ser reproduzidas
+        renderer.render(newGame); //Imprime o tabuleiro
+        try {
+            commands(nome); //Processa os comandos do jogador
+        } finally {
+            closeJournal();
+            //Devolve o jogo retirado da reserva, e não newGame, que depois de /load é o jogo carregado
+            boards.release(taken);
+            newGame = null;
+        }
+    }
+
+    /**
+     * Inicia um jogo de treino: igual a um novo jogo, mas as jogadas podem ser desfeitas e refeitas com /undo e
+     * /redo ({@link History}). As jogadas não ficam num diário e as vitórias não entram na tabela de vencedores.
+     */
+    public static void practiceGame() {
+        Game taken = boards.take(BoardPool.Preset.BEGINNER);
+        newGame = taken;
+        newGame.setHistory(new History());
+        System.out.print("Username> ");
+        String nome = newGame.setName(sc.nextLine());
+        newGame.setStartTime(System.currentTimeMillis());
+        renderer.render(newGame);
+        try {
+            commands(nome);
+        } finally {
+            boards.release(taken);
+            newGame = null;
+        }
+    }
+
+    /**
+     * Carrega um jogo guardado com /save.
+     * @param file o ficheiro do jogo guardado
+     * @return o jogo, ou null se não for possível carregá-lo
+     */
+    private static Game load(String file) {
+        try {
+            return Snapshot.load(Path.of(file));
+        } catch (NoSuchFileException e) {
+            System.out.println("No saved game found at " + file + ".\n");
+        } catch (IOException e) {
+            System.out.println("Could not load the game: " + e.getMessage() + "\n");
+        }
+        return null;
+    }
+
+    /**
+     * Cria o diário das jogadas de um jogo na pasta dos diários, com o nome game-&lt;hora de início&gt;.journal.
+     * @param game o jogo
+     * @return o diário, ou null se não for possível criá-lo (o jogo continua sem diário)
+     */
+    private static Journal openJournal(Game game) {
+        try {
+            Files.createDirectories(JOURNAL_DIRECTORY);
+            return Journal.create(JOURNAL_DIRECTORY.resolve("game-" + System.currentTimeMillis() + ".journal"), game);
+        } catch (IOException e) {
+            System.out.println("Could not create the game journal: " + e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Escreve e fecha o diário do jogo atual.
+     */
+    private static void closeJournal() {
+        Journal journal = newGame.getJournal();
+        if (journal == null) {
+            return;
+        }
+        newGame.setJournal(null);
+        try {
+            journal.close();
+        } catch (IOException e) {
+            System.out.println("Could not save the game journal: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Processa os comandos do jogador durante o jogo. Os comandos disponíveis incluem:
+     * <ul>
+     *   <li>/help - Exibe uma lista de comandos disponíveis.</li>
+     *   <li>/quit - Sai do jogo e retorna ao menu.</li>
+     *   <li>/open <linha> <coluna> - Abre uma célula nas coordenadas especificadas.</li>
+     *   <li>/flag <linha> <coluna> - Marca uma célula nas coordenadas especificadas. Se já estiver marcada, a marcação é removida.</li>
+     *   <li>/chord <linha> <coluna> - Abre as vizinhas de uma célula aberta com todas as bandeiras colocadas.</li>
+     *   <li>/hint - Mostra a probabilidade de bomba de cada célula fechada e a célula mais segura.</li>
+     *   <li>/undo, /redo - Desfazem e refazem jogadas (só nos jogos de treino).</li>
+     *   <li>/save [ficheiro] - Guarda o jogo para ser continuado mais tarde.</li>
+     *   <li>/load [ficheiro] - Troca o jogo atual por um jogo guardado.</li>
+     *   <li>/stats - Mostra as métricas do motor.</li>
+     *   <li>/cheat - Revela todas as bombas.</li>
+     *   <li>/win - Vence o jogo (a vitória não entra na tabela de vencedores).</li>
+     * </ul>
+     * Depois de cada jogada o motor indica se o jogador ganhou ou perdeu; nesse caso o ciclo termina
+     * e o controlo volta ao menu. Nos jogos de treino o ciclo continua até /quit, para que a última jogada
+     * possa ser desfeita.
+     * @param nome Nome do jogador
+     */
+    public static void commands(String nome) {
+        System.out.println("Welcome, " + nome + "!");
+        while (!newGame.isGameOver() || newGame.getHistory() != null) {
+            System.out.println("\nAvailable flags: " + newGame.getTotalFlags());
+            System.out.println("\nElapsed time: " + newGame.time());
+            System.out.println("\n[Type /help for assistance]");
+            System.out.print("Command> ");
+            String[] command = sc.nextLine().trim().split(" +");
+            switch (command[0]) {
+                case "/help":
+                    System.out.println("Available commands:");
+                    System.out.println("/help - Displays a list of available commands.");
+                    System.out.println("/quit - Quits the game.");
+                    System.out.println("/open <row> <column> - Opens a cell at the specified coordinates.");
+                    System.out.println("/flag <row> <column> - Flags a cell at the specified coordinates. If the cell is already flagged, it will be unflagged.");
+                    System.out.println("/chord <row> <column> - Opens the unflagged neighbours of an opened cell whose flags match its number.");
+                    System.out.println("/hint - Shows the chance of a bomb in each closed cell (-- safe, ** bomb) and the safest cell.");
+                    if (newGame.getHistory() != null) {
+                        System.out.println("/undo - Undoes the last move.");
+                        System.out.println("/redo - Redoes the last undone move.");
+                    }
+                    System.out.println("/save [file] - Saves the game so it can be resumed later.");
+                    System.out.println("/load [file] - Replaces the current game with a saved one.");
+                    System.out.println("/stats - Shows the engine metrics (moves, reveal sizes and times).");
+                    System.out.println("/cheat - Reveals the entire board.");
+                    System.out.println("/win - Reveals the entire board and wins the game (not recorded).");
+                    renderer.render(newGame);
+                    break;
+                case "/quit":
+                    System.out.println("Returning to the menu...");
+                    return;
+                case "/open":
+                case "/flag":
+                case "/chord":
+                    if (command.length != 3) {
+                        System.out.println("Invalid command, please use " + command[0] + " <row> <column>.");
+                        continue;
+                    }
+                    int row = parseRow(command[1]);
+                    int col = parseColumn(command[2]);
+                    MoveResult result;
+                    if (command[0].equals("/open")) {
+                        result = newGame.open(row, col);
+                    } else if (command[0].equals("/flag")) {
+                        result = newGame.flag(row, col);
+                    } else {
+                        result = newGame.chord(row, col);
+                    }
+                    showResult(result);
+                    break;
+                case "/hint":
+                    showProbabilities();
+                    break;
+                case "/undo":
+                    showResult(newGame.undo());
+                    break;
+                case "/redo":
+                    showResult(newGame.redo());
+                    break;
+                case "/save":
+                    Path file = Path.of(command.length > 1 ? command[1] : SAVE_FILE);
+                    try {
+                        Snapshot.save(newGame, file);
+                        System.out.println("Game saved to " + file + ".");
+                    } catch (IOException e) {
+                        System.out.println("Could not save the game: " + e.getMessage());
+                    }
+                    break;
+                case "/load":
+                    Game saved = load(command.length > 1 ? command[1] : SAVE_FILE);
+                    if (saved != null) {
+                        closeJournal();
+                        newGame = saved;
+                        System.out.println("Welcome back, " + newGame.getName() + "!");
+                        renderer.render(newGame);
+                    }
+                    break;
+                case "/stats":
+                    System.out.println(Metrics.get().report());
+                    break;
+                case "/cheat":
+                    newGame.showBombs();
+                    renderer.render(newGame);
+                    break;
+                case "/win":
+                    newGame.forceWin();
+                    renderer.render(newGame);
+                    win(true);
+                    break;
+                default:
+                    System.out.println("Invalid command! To see the list of available commands, type /help.");
+                    renderer.render(newGame);
+            }
+        }
+    }
+
+    /**
+     * Joga num tabuleiro sem limites ({@link EndlessBoard}), visto por uma janela de 9x9 que o jogador pode deslocar.
+     * Os comandos são os do jogo normal (/open, /flag, /chord, /hint, /quit) mais /move &lt;linhas&gt; &lt;colunas&gt;,
+     * que desloca a janela. O jogo começa na célula do centro da janela, que nunca tem bomba, e só acaba quando
+     * uma bomba rebenta; a pontuação é a quantidade de células abertas.
+     */
+    public static void endlessGame() {
+        Viewport view = new Viewport(new EndlessBoard(System.nanoTime(), 0.15, 1024, 100_000), 9, 9);
+        EndlessBoard board = view.getBoard();
+        board.open(0, 0);
+        renderer.render(view);
+        while (!board.isGameOver()) {
+            System.out.println("\nOpened cells: " + board.getOpenedCells() + "  Window at " + view.getTop() + ", " + view.getLeft());
+            System.out.print("Command> ");
+            String[] command = sc.nextLine().trim().split(" +");
+            MoveResult result = MoveResult.OK;
+            switch (command[0]) {
+                case "/quit":
+                    System.out.println("Returning to the menu...");
+                    return;
+                case "/move":
+                    if (command.length != 3) {
+                        System.out.println("Invalid command, please use /move <rows> <columns>.");
+                        continue;
+                    }
+                    try {
+                        view.move(Integer.parseInt(command[1]), Integer.parseInt(command[2]));
+                    } catch (NumberFormatException e) {
+                        System.out.println("Invalid command, please use /move <rows> <columns>.");
+                        continue;
+                    }
+                    break;
+                case "/open":
+                case "/flag":
+                case "/chord":
+                    if (command.length != 3) {
+                        System.out.println("Invalid command, please use " + command[0] + " <row> <column>.");
+                        continue;
+                    }
+                    int row = parseRow(command[1]);
+                    int col = parseColumn(command[2]);
+                    if (command[0].equals("/open")) {
+                        result = view.open(row, col);
+                    } else if (command[0].equals("/flag")) {
+                        result = view.flag(row, col);
+                    } else {
+                        result = view.chord(row, col);
+                    }
+                    break;
+                case "/hint":
+                    result = view.hint();
+                    break;
+                default:
+                    System.out.println("Invalid command! Use /open, /flag, /chord, /hint, /move or /quit.");
+                    continue;
+            }
+            if (result == MoveResult.OK || result == MoveResult.LOSE) {
+                renderer.render(view);
+            } else {
+                showMessage(view, result);
+            }
+        }
+        System.out.println("You lose! Opened cells: " + board.getOpenedCells() + "\nReturning to menu...\n");
+    }
+
+    /**
+     * Mostra a probabilidade de bomba de cada célula fechada ({@link Probabilities}) e a célula mais segura,
+     * sem fazer nenhuma jogada.
+     */
+    private static void showProbabilities() {
+        Probabilities probabilities = Probabilities.of(newGame);
+        renderer.renderProbabilities(newGame, probabilities);
+        int safest = probabilities.getSafest();
+        if (safest < 0) {
+            System.out.println("No hint available.");
+            return;
+        }
+        int cols = newGame.getCols();
+        System.out.printf("Safest cell: %s %d (%.1f%% chance of a bomb%s)%n", Coordinates.rowLabel(safest / cols),
+                safest % cols + 1, probabilities.get(safest) * 100, probabilities.isExact() ? "" : ", estimated");
+    }
+
+    /**
+     * Mostra ao jogador o resultado de uma jogada.
+     * @param result o resultado devolvido pelo motor
+     */
+    private static void showResult(MoveResult result) {
+        switch (result) {
+            case OK:
+                renderer.render(newGame);
+                break;
+            case WIN:
+                renderer.render(newGame);
+                win(false);
+                break;
+            case LOSE:
+                renderer.render(newGame);
+                if (newGame.getHistory() != null) {
+                    System.out.println("You lose! Type /undo to take the move back or /quit to return to the menu.");
+                } else {
+                    System.out.println("You lose! time: " + newGame.time() + "\nReturning to menu...\n");
+                }
+                break;
+            default:
+                showMessage(newGame, result);
+        }
+    }
+
+    /**
+     * Mostra ao jogador o motivo pelo qual uma jogada não foi feita.
+     * @param game o tabuleiro onde a jogada foi tentada
+     * @param result o resultado devolvido pelo motor
+     */
+    private static void showMessage(Engine game, MoveResult result) {
+        switch (result) {
+            case INVALID_ROW:
+                String lastRow = Coordinates.rowLabel(game.getRows() - 1);
+                System.out.println("Invalid row! Please enter a row between A and " + lastRow
+                        + " (or 1 and " + game.getRows() + ").");
+                break;
+            case INVALID_COLUMN:
+                System.out.println("Invalid column! Please enter a number between 1 and " + game.getCols() + ".");
+                break;
+            case ALREADY_OPEN:
+                System.out.println("Cell already opened!");
+                break;
+            case FLAGGED:
+                System.out.println("Flag already placed!");
+                break;
+            case CANNOT_CHORD:
+                System.out.println("The cell must be opened and have as many flags around it as its number!");
+                break;
+            case NO_HINT:
+                System.out.println("No hint available.");
+                renderer.render(game);
+                break;
+            case GAME_OVER:
+                System.out.println("The game is over. Type /undo or /quit.");
+                break;
+            case NOTHING_TO_UNDO:
+                System.out.println(newGame.getHistory() == null ? "Undo is only available in practice games."
+                        : "Nothing to undo.");
+                break;
+            case NOTHING_TO_REDO:
+                System.out.println(newGame.getHistory() == null ? "Redo is only available in practice games."
+                        : "Nothing to redo.");
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Termina o jogo com uma vitória e guarda o jogador na lista de vencedores (exceto nos jogos de treino, nas
+     * vitórias com /win e nos jogos sem diário, como os carregados com /load).
+     * @param forced verdadeiro se a vitória foi dada pelo comando /win
+     */
+    private static void win(boolean forced) {
+        if (newGame.getHistory() != null) {
+            System.out.println("You win! time: " + newGame.time() + " (practice games are not recorded)");
+            return;
+        }
+        if (forced) {
+            //O /win não fica no diário, por isso a reprodução do diário nunca chegaria a esta vitória
+            System.out.println("You win! time: " + newGame.time() + " (wins with /win are not recorded)"
+                    + "\nReturning to the menu...\n");
+            return;
+        }
+        if (newGame.getJournal() == null) {
+            //Um jogo carregado com /load não tem diário (o diário só pode começar num jogo novo), por isso a sua
+            //vitória não poderia ser verificada com o Replay
+            System.out.println("You win! time: " + newGame.time() + " (games without a journal, like loaded games,"
+                    + " are not recorded)\nReturning to the menu...\n");
+            return;
+        }
+        System.out.println("You win! time: " + newGame.time() + "\nReturning to the menu...\n");
+        try {
+            newGame.addWinners();
+        } catch (UncheckedIOException e) {
+            System.out.println("Could not save the result: " + e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Converte as letras de uma linha (A, B, ..., Z, AA, ...) ou o seu número (a começar em 1) no índice da linha.
+     * @param text o texto escrito pelo jogador
+     * @return o índice da linha, ou -1 se o texto não for válido
+     */
+    static int parseRow(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return Coordinates.parseRow(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Converte o número de uma coluna (a começar em 1) no índice da coluna.
+     * @param text o texto escrito pelo jogador
+     * @return o índice da coluna, ou -1 se o texto não for um número
+     */
+    static int parseColumn(String text) {
+        byte[] bytes = text.getBytes(StandardCharsets.US_ASCII);
+        return Coordinates.parseColumn(bytes, 0, bytes.length);
+    }
+
+    /**
+     * Abre a tabela de vencedores, inicia o menu do jogo e aguarda a escolha do usuário.
+     * @param args o ficheiro da tabela de vencedores (leaderboard.dat por omissão)
+     */
+    public static void main(String[] args) throws IOException {
+        try (Leaderboard leaderboard = new Leaderboard(Path.of(args.length > 0 ? args[0] : LEADERBOARD_FILE))) {
+            Game.setLeaderboard(leaderboard);
+            Metrics.register();
+            Menu.start();
+        }
+    }
+}
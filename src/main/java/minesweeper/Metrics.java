@@ -0,0 +1,421 @@
+package minesweeper;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Métricas das partes mais usadas do motor: jogos, jogadas, revelações, dicas, colocação das bombas, desenho
+ * do tabuleiro e tabuleiros prontos do {@link BoardPool}. São partilhadas por todos os jogos em curso e somadas com {@link LongAdder}, por isso as
+ * jogadas de várias threads não disputam nenhum lock nem a mesma linha de cache.
+ * <p>
+ * Cada operação também é registada como um evento do JDK Flight Recorder (categoria Minesweeper), que só custa
+ * alguma coisa quando uma gravação está ativa, por exemplo com
+ * {@code java -XX:StartFlightRecording:filename=game.jfr ...}. Os eventos são registados no fim da operação,
+ * com a duração medida pelo relógio monotónico (System.nanoTime) no campo Elapsed.
+ * <p>
+ * As métricas podem ser vistas com o comando /stats ou por JMX (jconsole), depois de {@link #register()}.
+ */
+public class Metrics implements MetricsMBean {
+    static final String OBJECT_NAME = "minesweeper:type=Metrics"; //Nome do MBean
+    private static final Metrics INSTANCE = new Metrics(); //Instância registada no servidor JMX
+    static final LongAdder MOVES = new LongAdder(); //Jogadas aceites pelo motor
+    static final LongAdder WINS = new LongAdder(); //Jogos ganhos
+    static final LongAdder LOSSES = new LongAdder(); //Jogos perdidos
+    static final Histogram GAME_NANOS = new Histogram(); //Duração dos jogos, da primeira jogada ao fim
+    static final Histogram REVEAL_CELLS = new Histogram(); //Células abertas por revelação
+    static final Histogram REVEAL_NANOS = new Histogram(); //Duração das revelações
+    static final Histogram HINT_NANOS = new Histogram(); //Duração das dicas
+    static final Histogram FILL_NANOS = new Histogram(); //Duração da colocação das bombas
+    static final Histogram RENDER_NANOS = new Histogram(); //Duração do desenho de um frame
+    static final LongAdder POOL_HITS = new LongAdder(); //Jogos entregues já prontos pelo BoardPool
+    static final LongAdder POOL_MISSES = new LongAdder(); //Jogos que o BoardPool teve de preparar na hora
+    private static volatile boolean registered; //Se o valor for true, o MBean já está registado
+
+    private Metrics() {
+    }
+
+    /**
+     * Histograma de valores não negativos em intervalos de potências de 2, com contagem, soma e máximo exatos.
+     * Os percentis são aproximados pelo limite superior do intervalo.
+     */
+    static final class Histogram {
+        private static final int BUCKETS = 64; //Um intervalo por cada quantidade de bits do valor
+        private final LongAdder[] buckets = new LongAdder[BUCKETS]; //Contagem de cada intervalo
+        private final LongAdder count = new LongAdder(); //Valores registados
+        private final LongAdder sum = new LongAdder(); //Soma dos valores
+        private final LongAccumulator max = new LongAccumulator(Math::max, 0); //Maior valor
+
+        Histogram() {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /**
+         * Regista um valor.
+         * @param value o valor (os negativos contam como 0)
+         */
+        void record(long value) {
+            value = Math.max(value, 0);
+            buckets[Math.min(64 - Long.numberOfLeadingZeros(value), BUCKETS - 1)].increment();
+            count.increment();
+            sum.add(value);
+            max.accumulate(value);
+        }
+
+        long count() {
+            return count.sum();
+        }
+
+        double mean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) sum.sum() / n;
+        }
+
+        long max() {
+            return max.get();
+        }
+
+        /**
+         * @param quantile a fração dos valores, entre 0 e 1
+         * @return o limite superior do intervalo onde está o percentil
+         */
+        long percentile(double quantile) {
+            long target = (long) Math.ceil(count.sum() * quantile);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += buckets[i].sum();
+                if (seen >= target && seen > 0) {
+                    return i == 0 ? 0 : (1L << i) - 1;
+                }
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            count.reset();
+            sum.reset();
+            max.reset();
+        }
+
+        /**
+         * @return contagem, média, percentis 50 e 99 e máximo
+         */
+        String summary(String unit) {
+            return String.format("count %d, mean %.1f %s, p50 <= %d, p99 <= %d, max %d", count(), mean(), unit,
+                    percentile(0.5), percentile(0.99), max());
+        }
+    }
+
+    @Name("minesweeper.Game")
+    @Label("Game Finished")
+    @Category("Minesweeper")
+    static final class GameEvent extends Event {
+        @Label("Rows")
+        int rows;
+        @Label("Columns")
+        int cols;
+        @Label("Bombs")
+        int bombs;
+        @Label("Won")
+        boolean won;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("minesweeper.Reveal")
+    @Label("Reveal")
+    @Category("Minesweeper")
+    static final class RevealEvent extends Event {
+        @Label("Cell")
+        int cell;
+        @Label("Cells Opened")
+        int cells;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("minesweeper.Hint")
+    @Label("Hint")
+    @Category("Minesweeper")
+    static final class HintEvent extends Event {
+        @Label("Candidates")
+        int candidates;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("minesweeper.FillBombs")
+    @Label("Fill Bombs")
+    @Category("Minesweeper")
+    static final class FillBombsEvent extends Event {
+        @Label("Cells")
+        int cells;
+        @Label("Bombs")
+        int bombs;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    @Name("minesweeper.Render")
+    @Label("Render")
+    @Category("Minesweeper")
+    static final class RenderEvent extends Event {
+        @Label("Frame Size")
+        @DataAmount
+        int bytes;
+        @Label("Elapsed")
+        @Timespan(Timespan.NANOSECONDS)
+        long elapsed;
+    }
+
+    /**
+     * Regista o fim de um jogo.
+     * @param game o jogo
+     * @param won verdadeiro se foi ganho
+     * @param elapsed os nanossegundos desde a primeira jogada
+     */
+    static void gameFinished(Game game, boolean won, long elapsed) {
+        (won ? WINS : LOSSES).increment();
+        GAME_NANOS.record(elapsed);
+        GameEvent event = new GameEvent();
+        if (event.shouldCommit()) {
+            event.rows = game.getRows();
+            event.cols = game.getCols();
+            event.bombs = game.getAmountBombs();
+            event.won = won;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Regista uma revelação.
+     * @param start o valor de System.nanoTime() no início
+     * @param cell a célula onde começou
+     * @param cells as células abertas
+     */
+    static void reveal(long start, int cell, int cells) {
+        long elapsed = System.nanoTime() - start;
+        REVEAL_NANOS.record(elapsed);
+        REVEAL_CELLS.record(cells);
+        RevealEvent event = new RevealEvent();
+        if (event.shouldCommit()) {
+            event.cell = cell;
+            event.cells = cells;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Regista a escolha de uma dica.
+     * @param start o valor de System.nanoTime() no início
+     * @param candidates as células candidatas a dica
+     */
+    static void hint(long start, int candidates) {
+        long elapsed = System.nanoTime() - start;
+        HINT_NANOS.record(elapsed);
+        HintEvent event = new HintEvent();
+        if (event.shouldCommit()) {
+            event.candidates = candidates;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Regista a colocação das bombas de um tabuleiro.
+     * @param start o valor de System.nanoTime() no início
+     * @param cells as células do tabuleiro
+     * @param bombs as bombas colocadas
+     */
+    static void fillBombs(long start, int cells, int bombs) {
+        long elapsed = System.nanoTime() - start;
+        FILL_NANOS.record(elapsed);
+        FillBombsEvent event = new FillBombsEvent();
+        if (event.shouldCommit()) {
+            event.cells = cells;
+            event.bombs = bombs;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * Regista o desenho de um frame.
+     * @param start o valor de System.nanoTime() no início
+     * @param bytes o tamanho do frame
+     */
+    static void render(long start, int bytes) {
+        long elapsed = System.nanoTime() - start;
+        RENDER_NANOS.record(elapsed);
+        RenderEvent event = new RenderEvent();
+        if (event.shouldCommit()) {
+            event.bytes = bytes;
+            event.elapsed = elapsed;
+            event.commit();
+        }
+    }
+
+    /**
+     * @return a instância das métricas (a mesma registada por JMX)
+     */
+    public static Metrics get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Regista as métricas no servidor JMX da plataforma, se ainda não estiverem registadas.
+     * Uma falha no registo não impede o jogo de correr: as métricas continuam disponíveis em /stats.
+     * @return verdadeiro se as métricas ficaram registadas
+     */
+    public static synchronized boolean register() {
+        if (!registered) {
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+                registered = true;
+            } catch (JMException e) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public long getGamesFinished() {
+        return WINS.sum() + LOSSES.sum();
+    }
+
+    @Override
+    public long getGamesWon() {
+        return WINS.sum();
+    }
+
+    @Override
+    public long getGamesLost() {
+        return LOSSES.sum();
+    }
+
+    @Override
+    public long getMoves() {
+        return MOVES.sum();
+    }
+
+    @Override
+    public double getMeanGameNanos() {
+        return GAME_NANOS.mean();
+    }
+
+    @Override
+    public long getReveals() {
+        return REVEAL_CELLS.count();
+    }
+
+    @Override
+    public double getMeanRevealCells() {
+        return REVEAL_CELLS.mean();
+    }
+
+    @Override
+    public double getMeanRevealNanos() {
+        return REVEAL_NANOS.mean();
+    }
+
+    @Override
+    public long getP99RevealNanos() {
+        return REVEAL_NANOS.percentile(0.99);
+    }
+
+    @Override
+    public long getHints() {
+        return HINT_NANOS.count();
+    }
+
+    @Override
+    public double getMeanHintNanos() {
+        return HINT_NANOS.mean();
+    }
+
+    @Override
+    public long getBoardsFilled() {
+        return FILL_NANOS.count();
+    }
+
+    @Override
+    public double getMeanFillBombsNanos() {
+        return FILL_NANOS.mean();
+    }
+
+    @Override
+    public long getFrames() {
+        return RENDER_NANOS.count();
+    }
+
+    @Override
+    public double getMeanRenderNanos() {
+        return RENDER_NANOS.mean();
+    }
+
+    @Override
+    public long getPoolHits() {
+        return POOL_HITS.sum();
+    }
+
+    @Override
+    public long getPoolMisses() {
+        return POOL_MISSES.sum();
+    }
+
+    @Override
+    public double getPoolHitRate() {
+        long hits = POOL_HITS.sum();
+        long total = hits + POOL_MISSES.sum();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+
+    @Override
+    public String report() {
+        return "Games: " + getGamesFinished() + " (" + getGamesWon() + " won, " + getGamesLost() + " lost), moves: "
+                + getMoves() + "\n"
+                + "Game time:     " + GAME_NANOS.summary("ns") + "\n"
+                + "Reveal cells:  " + REVEAL_CELLS.summary("cells") + "\n"
+                + "Reveal time:   " + REVEAL_NANOS.summary("ns") + "\n"
+                + "Hint time:     " + HINT_NANOS.summary("ns") + "\n"
+                + "Fill bombs:    " + FILL_NANOS.summary("ns") + "\n"
+                + "Render time:   " + RENDER_NANOS.summary("ns") + "\n"
+                + String.format("Board pool:    hits %d, misses %d, hit rate %.1f%%", getPoolHits(), getPoolMisses(),
+                getPoolHitRate() * 100);
+    }
+
+    @Override
+    public void reset() {
+        MOVES.reset();
+        WINS.reset();
+        LOSSES.reset();
+        GAME_NANOS.reset();
+        REVEAL_CELLS.reset();
+        REVEAL_NANOS.reset();
+        HINT_NANOS.reset();
+        FILL_NANOS.reset();
+        RENDER_NANOS.reset();
+        POOL_HITS.reset();
+        POOL_MISSES.reset();
+    }
+}
@@ -0,0 +1,67 @@
+package minesweeper;
+
+/**
+ * Interface JMX das métricas do motor, registada por {@link Metrics#register()} com o nome
+ * {@value Metrics#OBJECT_NAME}. Os tempos são em nanossegundos.
+ */
+public interface MetricsMBean {
+    /** @return os jogos que acabaram (ganhos ou perdidos) */
+    long getGamesFinished();
+
+    /** @return os jogos ganhos */
+    long getGamesWon();
+
+    /** @return os jogos perdidos */
+    long getGamesLost();
+
+    /** @return as jogadas aceites pelo motor */
+    long getMoves();
+
+    /** @return o tempo médio de um jogo, da primeira jogada ao fim */
+    double getMeanGameNanos();
+
+    /** @return as revelações feitas */
+    long getReveals();
+
+    /** @return a quantidade média de células abertas por revelação */
+    double getMeanRevealCells();
+
+    /** @return o tempo médio de uma revelação */
+    double getMeanRevealNanos();
+
+    /** @return o percentil 99 (aproximado) do tempo de uma revelação */
+    long getP99RevealNanos();
+
+    /** @return as dicas dadas */
+    long getHints();
+
+    /** @return o tempo médio de uma dica */
+    double getMeanHintNanos();
+
+    /** @return os tabuleiros preenchidos com bombas */
+    long getBoardsFilled();
+
+    /** @return o tempo médio a colocar as bombas de um tabuleiro */
+    double getMeanFillBombsNanos();
+
+    /** @return os frames desenhados */
+    long getFrames();
+
+    /** @return o tempo médio a desenhar um frame */
+    double getMeanRenderNanos();
+
+    /** @return os jogos entregues já prontos pelo {@link BoardPool} */
+    long getPoolHits();
+
+    /** @return os jogos que o {@link BoardPool} teve de preparar na hora */
+    long getPoolMisses();
+
+    /** @return a fração dos jogos entregues já prontos pelo {@link BoardPool}, entre 0 e 1 */
+    double getPoolHitRate();
+
+    /** @return todas as métricas em texto, uma por linha */
+    String report();
+
+    /** Põe todas as métricas a zero. */
+    void reset();
+}
@@ -0,0 +1,32 @@
+package minesweeper;
+
+/**
+ * Resultado de uma jogada feita no motor do jogo.
+ * O motor não escreve nada na consola; quem o usa (por exemplo o Menu) decide o que mostrar para cada resultado.
+ */
+public enum MoveResult {
+    /** A jogada foi aplicada e o jogo continua. */
+    OK,
+    /** A jogada foi aplicada e o jogador ganhou. */
+    WIN,
+    /** Foi aberta uma bomba e o jogador perdeu. */
+    LOSE,
+    /** A linha está fora do tabuleiro. */
+    INVALID_ROW,
+    /** A coluna está fora do tabuleiro. */
+    INVALID_COLUMN,
+    /** A célula já está aberta. */
+    ALREADY_OPEN,
+    /** A célula tem uma bandeira e não pode ser aberta. */
+    FLAGGED,
+    /** A célula não está aberta ou o número de bandeiras à volta não corresponde ao seu número. */
+    CANNOT_CHORD,
+    /** Não existe nenhuma célula disponível para dica. */
+    NO_HINT,
+    /** O jogo já acabou e não aceita mais jogadas. */
+    GAME_OVER,
+    /** Não há histórico ou nenhuma jogada por desfazer. */
+    NOTHING_TO_UNDO,
+    /** Não há histórico ou nenhuma jogada desfeita por refazer. */
+    NOTHING_TO_REDO
+}
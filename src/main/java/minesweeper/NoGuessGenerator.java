@@ -0,0 +1,123 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Gera tabuleiros que se resolvem só por dedução a partir de uma primeira jogada garantida sem bomba,
+ * para que nenhum jogo dependa da sorte de um palpite.
+ * Cada tabuleiro candidato é colocado por {@link Game#fillBombs(long, int, int)} com a primeira jogada no centro
+ * e testado pelo {@link Solver} sem palpites. Os candidatos são numerados e testados em paralelo por todas as
+ * threads do pool; o tabuleiro devolvido é sempre o candidato aceite com o menor número, por isso a mesma
+ * semente dá sempre o mesmo tabuleiro, com qualquer número de threads.
+ * Assim que um candidato é aceite, as threads deixam de testar candidatos com números maiores.
+ */
+public class NoGuessGenerator {
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L; //Espalha as sementes dos candidatos
+    private final int rows; //Linhas
+    private final int cols; //Colunas
+    private final int amountBombs; //Bombas
+    private final int maxAttempts; //Candidatos testados antes de desistir
+    private final ForkJoinPool pool; //Pool onde os candidatos são testados
+    private int lastAttempts; //Candidatos testados pela última geração
+
+    /**
+     * Cria um gerador para tabuleiros com as dimensões e o número de bombas indicados.
+     * @param rows o número de linhas
+     * @param cols o número de colunas
+     * @param amountBombs o número de bombas
+     * @param maxAttempts a quantidade máxima de candidatos por tabuleiro
+     * @param pool o pool onde os candidatos são testados
+     * @throws IllegalArgumentException se as dimensões ou o número de bombas não forem válidos
+     */
+    public NoGuessGenerator(int rows, int cols, int amountBombs, int maxAttempts, ForkJoinPool pool) {
+        new Game(rows, cols, amountBombs); //valida as dimensões e as bombas
+        if (maxAttempts <= 0) {
+            throw new IllegalArgumentException("Invalid amount of attempts: " + maxAttempts);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.amountBombs = amountBombs;
+        this.maxAttempts = maxAttempts;
+        this.pool = pool;
+    }
+
+    /**
+     * @return a quantidade de candidatos testados pela última chamada a {@link #generate(long)}
+     */
+    public int getLastAttempts() {
+        return lastAttempts;
+    }
+
+    /**
+     * Gera um tabuleiro que se resolve sem palpites, pronto a jogar. A primeira jogada deve ser
+     * na célula {@link Game#getStartCell()}.
+     * @param seed a semente do tabuleiro
+     * @return o jogo com as bombas colocadas
+     * @throws IllegalStateException se nenhum dos candidatos se resolver sem palpites
+     */
+    public Game generate(long seed) {
+        AtomicInteger next = new AtomicInteger(); //Próximo candidato a testar
+        AtomicInteger found = new AtomicInteger(Integer.MAX_VALUE); //Menor candidato aceite
+        List<Callable<Void>> workers = new ArrayList<>();
+        for (int i = 0; i < pool.getParallelism(); i++) {
+            workers.add(() -> {
+                int candidate;
+                while ((candidate = next.getAndIncrement()) < Math.min(found.get(), maxAttempts)) {
+                    Game game = candidate(seed, candidate);
+                    if (new Solver(game).solveWithoutGuessing()) {
+                        found.accumulateAndGet(candidate, Math::min);
+                    }
+                }
+                return null;
+            });
+        }
+        pool.invokeAll(workers);
+        lastAttempts = Math.min(next.get() - workers.size(), maxAttempts);
+        if (found.get() == Integer.MAX_VALUE) {
+            throw new IllegalStateException("No board without guesses found in " + maxAttempts + " attempts");
+        }
+        return candidate(seed, found.get());
+    }
+
+    /**
+     * Cria o tabuleiro de um candidato.
+     * Todos os candidatos que ficam abaixo do aceite foram testados, porque os números são distribuídos por ordem.
+     * @param seed a semente do tabuleiro
+     * @param candidate o número do candidato
+     * @return o jogo com as bombas colocadas
+     */
+    private Game candidate(long seed, int candidate) {
+        Game game = new Game(rows, cols, amountBombs);
+        game.initializeGame();
+        game.fillBombs(seed + candidate * GOLDEN_GAMMA, rows / 2, cols / 2);
+        return game;
+    }
+
+    /**
+     * Gera vários tabuleiros e mostra quantos são gerados por segundo.
+     * @param args linhas, colunas, bombas e quantidade de tabuleiros (16 30 99 100 por omissão)
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int bombs = args.length > 2 ? Integer.parseInt(args[2]) : 99;
+        int boards = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        NoGuessGenerator generator = new NoGuessGenerator(rows, cols, bombs, 1_000_000, pool);
+        long attempts = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < boards; i++) {
+            generator.generate(i);
+            attempts += generator.getLastAttempts();
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        System.out.printf("%dx%d with %d bombs on %d threads%n", rows, cols, bombs, pool.getParallelism());
+        System.out.printf("Boards per second: %.1f%n", boards * 1e9 / elapsed);
+        System.out.printf("Candidates per board: %.1f%n", (double) attempts / boards);
+    }
+}
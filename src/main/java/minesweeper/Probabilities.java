@@ -0,0 +1,737 @@
+package minesweeper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Calcula a probabilidade exata de cada célula fechada ter uma bomba, usando apenas o que o jogador vê:
+ * os números abertos, as bombas à vista e o número total de bombas. As bandeiras são tratadas como células
+ * fechadas, porque podem estar erradas.
+ * <p>
+ * As células fechadas vizinhas de números (a fronteira) são divididas em componentes independentes: duas
+ * células ficam no mesmo componente se estiverem à volta do mesmo número. Para cada componente são contadas
+ * as configurações de bombas válidas, separadas pela quantidade de bombas, com programação dinâmica: as células
+ * são decididas por ordem e o estado guardado é apenas o que falta a cada número ainda incompleto, por isso
+ * configurações diferentes que chegam ao mesmo estado são contadas uma só vez (memoização).
+ * Os componentes são depois combinados com o número de bombas que sobra para as células longe da fronteira,
+ * pesando cada total de bombas pelo número de maneiras de as colocar nessas células.
+ * Os componentes são contados em paralelo no pool indicado.
+ * <p>
+ * Um componente cujos estados não cabem nos limites (63 bits por estado, {@value #MAX_CELLS} valores guardados)
+ * usa a estimativa local do {@link Solver}, e em tabuleiros com muitos componentes a combinação é aproximada
+ * (ver {@link #approximate(List, int, int)}); nesses casos o resultado fica marcado como aproximado.
+ */
+public class Probabilities {
+    private static final long MAX_COMBINE_WORK = 50_000_000; //Operações a partir das quais a combinação é aproximada
+    private static final int MAX_CELLS = 1 << 22; //Valores guardados pela contagem de um componente
+    private final double[] probability; //Probabilidade de bomba de cada célula fechada, ou -1 nas outras
+    private final int safest; //Célula fechada e sem bandeira com a menor probabilidade, ou -1
+    private final int components; //Componentes da fronteira
+    private boolean exact = true; //Se todos os componentes foram contados
+
+    /**
+     * Calcula as probabilidades de um jogo no pool comum.
+     * @param game o jogo
+     * @return as probabilidades
+     */
+    public static Probabilities of(Game game) {
+        return new Probabilities(game, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Calcula as probabilidades de um jogo.
+     * @param game o jogo
+     * @param pool o pool onde os componentes são contados
+     */
+    public Probabilities(Game game, ForkJoinPool pool) {
+        long start = System.nanoTime();
+        int rows = game.getRows();
+        int cols = game.getCols();
+        int size = rows * cols;
+        probability = new double[size];
+        Arrays.fill(probability, -1);
+        //Restrições: as células fechadas à volta de cada número e as bombas que lhes faltam
+        int[] constraintOf = new int[size]; //Restrição de cada número, ou -1
+        Arrays.fill(constraintOf, -1);
+        List<int[]> constraintCells = new ArrayList<>();
+        List<Integer> constraintMines = new ArrayList<>();
+        int hidden = 0;
+        int minesLeft = game.getAmountBombs();
+        for (int index = 0; index < size; index++) {
+            int code = game.symbolCode(index);
+            if (isClosed(code)) {
+                hidden++;
+                continue;
+            }
+            if (code == Game.BOMB_CODE || code == Game.EXPLODED_CODE) {
+                minesLeft--;
+                continue;
+            }
+            if (code == 0) {
+                continue;
+            }
+            int row = index / cols;
+            int col = index % cols;
+            int[] around = new int[8];
+            int count = 0;
+            int missing = code;
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    int symbol = game.symbolCode(i * cols + j);
+                    if (isClosed(symbol)) {
+                        around[count++] = i * cols + j;
+                    } else if (symbol == Game.BOMB_CODE || symbol == Game.EXPLODED_CODE) {
+                        missing--;
+                    }
+                }
+            }
+            if (count > 0) {
+                constraintOf[index] = constraintCells.size();
+                constraintCells.add(Arrays.copyOf(around, count));
+                constraintMines.add(missing);
+            }
+        }
+        //Componentes: percorre a fronteira em largura a partir de cada célula ainda sem componente
+        int[] componentOf = new int[size];
+        Arrays.fill(componentOf, -1);
+        List<Component> parts = new ArrayList<>();
+        int[] queue = new int[size];
+        int frontier = 0;
+        for (int c = 0; c < constraintCells.size(); c++) {
+            int first = constraintCells.get(c)[0];
+            if (componentOf[first] >= 0) {
+                continue;
+            }
+            int id = parts.size();
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = first;
+            componentOf[first] = id;
+            while (head < tail) {
+                int cell = queue[head++];
+                int row = cell / cols;
+                int col = cell % cols;
+                for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                    for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                        int number = constraintOf[i * cols + j];
+                        if (number < 0) {
+                            continue;
+                        }
+                        for (int other : constraintCells.get(number)) {
+                            if (componentOf[other] < 0) {
+                                componentOf[other] = id;
+                                queue[tail++] = other;
+                            }
+                        }
+                    }
+                }
+            }
+            parts.add(new Component(Arrays.copyOf(queue, tail), constraintOf, constraintCells, constraintMines, cols));
+            frontier += tail;
+        }
+        components = parts.size();
+        int unconstrained = hidden - frontier;
+        run(pool, parts, true);
+        long work = 0;
+        for (Component part : parts) {
+            work += part.totals.length;
+        }
+        work = work * work * components;
+        double outside = work <= MAX_COMBINE_WORK ? combine(parts, minesLeft, unconstrained)
+                : approximate(parts, minesLeft, unconstrained);
+        run(pool, parts, false);
+        for (Component part : parts) {
+            exact &= part.exact;
+            for (int k = 0; k < part.cells.length; k++) {
+                probability[part.cells[k]] = part.probability[k];
+            }
+        }
+        if (unconstrained > 0 && !(outside >= 0)) {
+            outside = (double) Math.max(minesLeft, 0) / hidden;
+        }
+        int best = -1;
+        for (int index = 0; index < size; index++) {
+            int code = game.symbolCode(index);
+            if (!isClosed(code)) {
+                continue;
+            }
+            if (componentOf[index] < 0) {
+                probability[index] = outside;
+            }
+            if (code == Game.HIDDEN_CODE && (best < 0 || probability[index] < probability[best])) {
+                best = index;
+            }
+        }
+        safest = best;
+        Metrics.hint(start, hidden);
+    }
+
+    /**
+     * Combina os componentes de forma exata: o peso de cada quantidade de bombas de um componente é a soma, por
+     * quantidade de bombas dos outros componentes (multiplicados com prefixos e sufixos), das maneiras de pôr as
+     * bombas que sobram nas células longe da fronteira.
+     * @return a probabilidade de bomba de cada célula longe da fronteira
+     */
+    private static double combine(List<Component> parts, int minesLeft, int unconstrained) {
+        int components = parts.size();
+        double[] ways = binomials(unconstrained, Math.max(minesLeft, 0));
+        double[][] prefix = new double[components + 1][];
+        double[][] suffix = new double[components + 1][];
+        prefix[0] = new double[] {1};
+        suffix[components] = new double[] {1};
+        for (int i = 0; i < components; i++) {
+            prefix[i + 1] = convolve(prefix[i], parts.get(i).totals, ways.length);
+            suffix[components - 1 - i] = convolve(parts.get(components - 1 - i).totals, suffix[components - i], ways.length);
+        }
+        for (int i = 0; i < components; i++) {
+            parts.get(i).external(convolve(prefix[i], suffix[i + 1], ways.length), ways);
+        }
+        //Células longe da fronteira: cada uma tem a fração média das bombas que lá ficam
+        double weight = 0;
+        double mines = 0;
+        double[] all = prefix[components];
+        for (int m = 0; m < all.length && m < ways.length; m++) {
+            double w = all[m] * ways[minesLeft - m];
+            weight += w;
+            mines += w * (minesLeft - m);
+        }
+        return unconstrained == 0 ? 0 : mines / weight / unconstrained;
+    }
+
+    /**
+     * Combina os componentes de forma aproximada, quando são demasiados para a combinação exata (tabuleiros
+     * grandes): como as células longe da fronteira são muitas, cada bomba a mais num componente multiplica o
+     * peso por uma razão quase constante, C(u, k - 1) / C(u, k), calculada para as bombas que se espera que
+     * sobrem. Os componentes ficam independentes e o resultado fica marcado como aproximado.
+     * @return a probabilidade de bomba de cada célula longe da fronteira
+     */
+    private double approximate(List<Component> parts, int minesLeft, int unconstrained) {
+        exact = false;
+        double expected = 0;
+        for (Component part : parts) {
+            expected += part.expected(0);
+        }
+        double logRatio = 0;
+        for (int round = 0; round < 4; round++) {
+            double outside = Math.min(Math.max(minesLeft - expected, 0.5), unconstrained + 0.5);
+            logRatio = unconstrained == 0 ? 0 : Math.log(outside / (unconstrained - outside + 1));
+            expected = 0;
+            for (Component part : parts) {
+                expected += part.expected(logRatio);
+            }
+        }
+        for (Component part : parts) {
+            part.external(logRatio);
+        }
+        return unconstrained == 0 ? 0 : Math.min(Math.max((minesLeft - expected) / unconstrained, 0), 1);
+    }
+
+    /**
+     * Conta os componentes (primeira passagem) ou calcula as probabilidades das suas células (segunda passagem),
+     * em paralelo se houver mais do que um.
+     */
+    private static void run(ForkJoinPool pool, List<Component> parts, boolean count) {
+        if (parts.size() < 2) {
+            for (Component part : parts) {
+                part.run(count);
+            }
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Component part : parts) {
+            tasks.add(() -> {
+                part.run(count);
+                return null;
+            });
+        }
+        pool.invokeAll(tasks);
+    }
+
+    /**
+     * @return verdadeiro se a célula está fechada (com ou sem bandeira)
+     */
+    private static boolean isClosed(int code) {
+        return code == Game.HIDDEN_CODE || code == Game.FLAG_CODE;
+    }
+
+    /**
+     * Calcula C(n, k) para k de 0 a max, divididos pelo maior deles para não sair dos limites de um double.
+     */
+    private static double[] binomials(int n, int max) {
+        double[] log = new double[max + 1];
+        double top = 0;
+        for (int k = 1; k <= max; k++) {
+            log[k] = k > n ? Double.NEGATIVE_INFINITY : log[k - 1] + Math.log(n - k + 1) - Math.log(k);
+            top = Math.max(top, log[k]);
+        }
+        double[] ways = new double[max + 1];
+        for (int k = 0; k <= max; k++) {
+            ways[k] = Math.exp(log[k] - top);
+        }
+        return ways;
+    }
+
+    /**
+     * Multiplica dois polinómios (contagens por quantidade de bombas), cortando no comprimento indicado
+     * e dividindo o resultado pelo seu maior valor.
+     */
+    private static double[] convolve(double[] a, double[] b, int length) {
+        double[] result = new double[Math.max(Math.min(a.length + b.length - 1, length), 1)];
+        for (int i = 0; i < a.length && i < result.length; i++) {
+            if (a[i] == 0) {
+                continue;
+            }
+            for (int j = 0; j < b.length && i + j < result.length; j++) {
+                result[i + j] += a[i] * b[j];
+            }
+        }
+        return normalize(result);
+    }
+
+    private static double[] normalize(double[] values) {
+        double top = 0;
+        for (double v : values) {
+            top = Math.max(top, v);
+        }
+        if (top > 0) {
+            for (int i = 0; i < values.length; i++) {
+                values[i] /= top;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * @param index o índice da célula
+     * @return a probabilidade de a célula ter bomba, ou -1 se a célula não estiver fechada
+     */
+    public double get(int index) {
+        return probability[index];
+    }
+
+    /**
+     * @return a célula fechada e sem bandeira com a menor probabilidade de ter bomba, ou -1 se não houver
+     */
+    public int getSafest() {
+        return safest;
+    }
+
+    /**
+     * @return a quantidade de componentes independentes da fronteira
+     */
+    public int getComponents() {
+        return components;
+    }
+
+    /**
+     * @return verdadeiro se todas as probabilidades são exatas, falso se algum componente usou a estimativa local
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Um componente da fronteira: as suas células, pela ordem em que são decididas, e os números à sua volta.
+     * A ordem é a da pesquisa em largura, para que cada número fique incompleto durante poucas células.
+     */
+    private static final class Component {
+        private final int[] cells; //Células do componente, pela ordem de decisão
+        private final int[] mines; //Bombas que faltam a cada número do componente
+        private final int[] size; //Células fechadas à volta de cada número
+        private final int[] first; //Posição da primeira célula de cada número
+        private final int[][] touching; //Números à volta da célula em cada posição
+        private final int[][] after; //Células de cada um desses números que ainda faltam decidir depois da posição
+        private final int[][] active; //Números incompletos antes de decidir cada posição (e no fim)
+        private final int[][] shift; //Bit onde começa cada número incompleto no estado (mais uma posição final)
+        private final int[] value; //Bombas que faltam a cada número, durante uma transição
+        private List<Map<Long, double[]>> forward; //Contagens por estado antes de cada posição
+        private double[] totals; //Configurações válidas por quantidade de bombas, normalizadas
+        private double[] external; //Peso de cada quantidade de bombas do componente no resto do tabuleiro
+        private double[] probability; //Probabilidade de bomba de cada célula
+        private boolean exact = true; //Se a contagem coube nos limites
+
+        /**
+         * Prepara um componente.
+         * @param found as células do componente, pela ordem da pesquisa em largura
+         * @param constraintOf a restrição de cada número do tabuleiro, ou -1
+         * @param constraintCells as células fechadas de cada restrição
+         * @param constraintMines as bombas que faltam a cada restrição
+         * @param cols o número de colunas
+         */
+        Component(int[] found, int[] constraintOf, List<int[]> constraintCells, List<Integer> constraintMines, int cols) {
+            int n = found.length;
+            //Números do componente, numerados localmente pela ordem em que aparecem
+            Map<Integer, Integer> local = new HashMap<>();
+            List<Integer> missing = new ArrayList<>();
+            int[][] around = new int[n][];
+            int[] scratch = new int[8];
+            for (int q = 0; q < n; q++) {
+                int row = found[q] / cols;
+                int col = found[q] % cols;
+                int count = 0;
+                for (int i = row - 1; i <= row + 1; i++) {
+                    for (int j = col - 1; j <= col + 1; j++) {
+                        if (i < 0 || j < 0 || j >= cols || i * cols + j >= constraintOf.length) {
+                            continue;
+                        }
+                        int global = constraintOf[i * cols + j];
+                        if (global < 0) {
+                            continue;
+                        }
+                        Integer id = local.get(global);
+                        if (id == null) {
+                            id = missing.size();
+                            local.put(global, id);
+                            missing.add(constraintMines.get(global));
+                        }
+                        scratch[count++] = id;
+                    }
+                }
+                around[q] = Arrays.copyOf(scratch, count);
+            }
+            int constraints = missing.size();
+            mines = new int[constraints];
+            size = new int[constraints];
+            for (int q = 0; q < n; q++) {
+                for (int c : around[q]) {
+                    size[c]++;
+                }
+            }
+            for (int c = 0; c < constraints; c++) {
+                mines[c] = missing.get(c);
+            }
+            int[] order = order(around, constraints);
+            cells = new int[n];
+            touching = new int[n][];
+            after = new int[n][];
+            first = new int[constraints];
+            Arrays.fill(first, -1);
+            active = new int[n + 1][];
+            active[0] = new int[0];
+            shift = new int[n + 1][];
+            shift[0] = new int[1];
+            int[] left = size.clone();
+            int[] open = new int[constraints];
+            int openCount = 0;
+            for (int p = 0; p < n; p++) {
+                cells[p] = found[order[p]];
+                touching[p] = around[order[p]];
+                after[p] = new int[touching[p].length];
+                for (int k = 0; k < touching[p].length; k++) {
+                    int c = touching[p][k];
+                    if (first[c] < 0) {
+                        first[c] = p;
+                        open[openCount++] = c;
+                    }
+                    after[p][k] = --left[c];
+                }
+                //Os números completos deixam de fazer parte do estado
+                int kept = 0;
+                for (int k = 0; k < openCount; k++) {
+                    if (left[open[k]] > 0) {
+                        open[kept++] = open[k];
+                    }
+                }
+                openCount = kept;
+                active[p + 1] = Arrays.copyOf(open, openCount);
+                shift[p + 1] = new int[openCount + 1];
+                for (int k = 0; k < openCount; k++) {
+                    int most = Math.min(mines[open[k]], left[open[k]]);
+                    shift[p + 1][k + 1] = shift[p + 1][k] + 32 - Integer.numberOfLeadingZeros(most);
+                }
+            }
+            value = new int[constraints];
+        }
+
+        /**
+         * Escolhe a ordem de decisão das células para que fiquem poucos números incompletos ao mesmo tempo:
+         * enquanto houver números incompletos, decide uma célula do número começado há mais tempo, escolhendo
+         * a que começa menos números novos; senão, a primeira célula da pesquisa em largura ainda por decidir.
+         * Assim a ordem avança ao longo da fronteira e cada número fica incompleto durante poucas células.
+         * @param around os números à volta de cada célula
+         * @param constraints a quantidade de números
+         * @return as posições das células pela ordem de decisão
+         */
+        private int[] order(int[][] around, int constraints) {
+            int n = around.length;
+            int[][] members = new int[constraints][];
+            int[] count = new int[constraints];
+            for (int c = 0; c < constraints; c++) {
+                members[c] = new int[size[c]];
+            }
+            for (int q = 0; q < n; q++) {
+                for (int c : around[q]) {
+                    members[c][count[c]++] = q;
+                }
+            }
+            int[] order = new int[n];
+            boolean[] done = new boolean[n];
+            boolean[] started = new boolean[constraints];
+            int[] left = size.clone();
+            int[] queue = new int[constraints]; //Números pela ordem em que foram começados
+            int head = 0;
+            int tail = 0;
+            int next = 0; //Primeira célula da pesquisa em largura que pode ainda não estar decidida
+            for (int p = 0; p < n; p++) {
+                while (head < tail && left[queue[head]] == 0) {
+                    head++;
+                }
+                int best = -1;
+                if (head < tail) {
+                    int bestScore = Integer.MAX_VALUE;
+                    for (int q : members[queue[head]]) {
+                        if (done[q]) {
+                            continue;
+                        }
+                        int score = 0;
+                        for (int c : around[q]) {
+                            if (!started[c]) {
+                                score += 2;
+                            } else if (left[c] == 1) {
+                                score--;
+                            }
+                        }
+                        if (score < bestScore) {
+                            bestScore = score;
+                            best = q;
+                        }
+                    }
+                } else {
+                    while (done[next]) {
+                        next++;
+                    }
+                    best = next;
+                }
+                done[best] = true;
+                order[p] = best;
+                for (int c : around[best]) {
+                    if (!started[c]) {
+                        started[c] = true;
+                        queue[tail++] = c;
+                    }
+                    left[c]--;
+                }
+            }
+            return order;
+        }
+
+        /**
+         * Faz a contagem (primeira passagem) ou calcula as probabilidades (segunda passagem).
+         */
+        void run(boolean count) {
+            if (count) {
+                count();
+            } else if (exact) {
+                probabilities();
+            } else {
+                estimate();
+            }
+        }
+
+        /**
+         * Conta as configurações válidas por quantidade de bombas, guardando as contagens de cada estado
+         * antes de cada posição. O estado é o que falta a cada número incompleto, com os bits suficientes para
+         * o máximo que lhe pode faltar (as bombas do número ou as suas células ainda por decidir).
+         */
+        private void count() {
+            int n = cells.length;
+            forward = new ArrayList<>(n + 1);
+            Map<Long, double[]> states = new HashMap<>();
+            double[] empty = new double[n + 1];
+            empty[0] = 1;
+            states.put(0L, empty);
+            forward.add(states);
+            long stored = n + 1;
+            for (int p = 0; p < n; p++) {
+                if (shift[p + 1][active[p + 1].length] >= Long.SIZE) {
+                    exact = false;
+                    break;
+                }
+                Map<Long, double[]> next = new HashMap<>();
+                for (Map.Entry<Long, double[]> entry : states.entrySet()) {
+                    double[] counts = entry.getValue();
+                    for (int mine = 0; mine <= 1; mine++) {
+                        long key = step(p, entry.getKey(), mine);
+                        if (key < 0) {
+                            continue;
+                        }
+                        double[] target = next.get(key);
+                        if (target == null) {
+                            target = new double[n + 1];
+                            next.put(key, target);
+                        }
+                        for (int m = 0; m + mine <= n; m++) {
+                            target[m + mine] += counts[m];
+                        }
+                    }
+                }
+                stored += (long) next.size() * (n + 1);
+                if (stored > MAX_CELLS) {
+                    exact = false;
+                    break;
+                }
+                forward.add(next);
+                states = next;
+            }
+            double[] end = exact ? states.get(0L) : null;
+            if (end == null) {
+                exact = false;
+                forward = null;
+                estimate();
+                totals = new double[(int) Math.round(Arrays.stream(probability).sum()) + 1];
+                totals[totals.length - 1] = 1;
+                return;
+            }
+            int length = n + 1;
+            while (length > 1 && end[length - 1] == 0) {
+                length--;
+            }
+            totals = normalize(Arrays.copyOf(end, length));
+        }
+
+        /**
+         * Guarda o peso de cada quantidade de bombas do componente no resto do tabuleiro: as configurações dos
+         * outros componentes, vezes as maneiras de pôr as bombas que sobram nas células longe da fronteira.
+         * @param others as configurações dos outros componentes por quantidade de bombas
+         * @param ways as maneiras de pôr k bombas nas células longe da fronteira
+         */
+        void external(double[] others, double[] ways) {
+            int minesLeft = ways.length - 1;
+            external = new double[cells.length + 2];
+            for (int m = 0; m < external.length; m++) {
+                double sum = 0;
+                for (int o = 0; o < others.length && m + o <= minesLeft; o++) {
+                    sum += others[o] * ways[minesLeft - m - o];
+                }
+                external[m] = sum;
+            }
+        }
+
+        /**
+         * Guarda o peso de cada quantidade de bombas do componente quando cada bomba multiplica o peso pela mesma
+         * razão (combinação aproximada).
+         * @param logRatio o logaritmo da razão
+         */
+        void external(double logRatio) {
+            external = new double[cells.length + 2];
+            double top = logRatio > 0 ? logRatio * (external.length - 1) : 0;
+            for (int m = 0; m < external.length; m++) {
+                external[m] = Math.exp(m * logRatio - top);
+            }
+        }
+
+        /**
+         * @param logRatio o logaritmo da razão que multiplica o peso por cada bomba
+         * @return a quantidade esperada de bombas no componente
+         */
+        double expected(double logRatio) {
+            double weight = 0;
+            double mines = 0;
+            double top = logRatio > 0 ? logRatio * (totals.length - 1) : 0;
+            for (int m = 0; m < totals.length; m++) {
+                double w = totals[m] * Math.exp(m * logRatio - top);
+                weight += w;
+                mines += w * m;
+            }
+            return weight > 0 ? mines / weight : 0;
+        }
+
+        /**
+         * Percorre as posições de trás para a frente, calculando para cada estado o peso de todas as maneiras de
+         * completar o componente, já multiplicado pelo peso externo do total de bombas. Com as contagens guardadas
+         * pela primeira passagem, o peso de cada célula ter bomba é a soma, por estado, das contagens até à célula
+         * vezes o peso de completar a partir da célula com bomba.
+         */
+        private void probabilities() {
+            int n = cells.length;
+            probability = new double[n];
+            Map<Long, double[]> later = new HashMap<>();
+            later.put(0L, Arrays.copyOf(external, n + 1));
+            for (int p = n - 1; p >= 0; p--) {
+                Map<Long, double[]> current = new HashMap<>();
+                double weight = 0;
+                for (Map.Entry<Long, double[]> entry : forward.get(p).entrySet()) {
+                    double[] weights = new double[n + 1];
+                    for (int mine = 0; mine <= 1; mine++) {
+                        long key = step(p, entry.getKey(), mine);
+                        double[] rest = key < 0 ? null : later.get(key);
+                        if (rest == null) {
+                            continue;
+                        }
+                        for (int m = 0; m + mine <= n; m++) {
+                            weights[m] += rest[m + mine];
+                        }
+                        if (mine == 1) {
+                            double[] counts = entry.getValue();
+                            for (int m = 0; m < n; m++) {
+                                weight += counts[m] * rest[m + 1];
+                            }
+                        }
+                    }
+                    current.put(entry.getKey(), weights);
+                }
+                probability[p] = weight;
+                later = current;
+            }
+            double[] start = later.get(0L);
+            double total = start == null ? 0 : start[0];
+            if (total <= 0) {
+                exact = false;
+                estimate();
+                return;
+            }
+            for (int p = 0; p < n; p++) {
+                probability[p] = Math.min(probability[p] / total, 1);
+            }
+            forward = null;
+        }
+
+        /**
+         * Estimativa local usada quando a contagem não cabe nos limites: a maior razão entre as bombas que faltam
+         * e as células fechadas dos números à volta de cada célula.
+         */
+        private void estimate() {
+            probability = new double[cells.length];
+            for (int p = 0; p < cells.length; p++) {
+                for (int c : touching[p]) {
+                    probability[p] = Math.max(probability[p], (double) mines[c] / size[c]);
+                }
+            }
+        }
+
+        /**
+         * Decide a célula de uma posição a partir de um estado.
+         * @param p a posição
+         * @param key o estado antes da posição
+         * @param mine 1 se a célula tiver bomba, 0 se não
+         * @return o estado depois da posição, ou -1 se algum número ficar impossível de completar
+         */
+        private long step(int p, long key, int mine) {
+            int[] before = active[p];
+            for (int k = 0; k < before.length; k++) {
+                int bits = shift[p][k + 1] - shift[p][k];
+                value[before[k]] = (int) (key >>> shift[p][k]) & ((1 << bits) - 1);
+            }
+            int[] numbers = touching[p];
+            for (int k = 0; k < numbers.length; k++) {
+                int c = numbers[k];
+                int left = (first[c] == p ? mines[c] : value[c]) - mine;
+                if (left < 0 || left > after[p][k]) {
+                    return -1;
+                }
+                value[c] = left;
+            }
+            int[] next = active[p + 1];
+            long result = 0;
+            for (int k = 0; k < next.length; k++) {
+                result |= (long) value[next[k]] << shift[p + 1][k];
+            }
+            return result;
+        }
+    }
+}
@@ -0,0 +1,206 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reproduz um jogo a partir do seu {@link Journal}: recria o tabuleiro com a semente e as dimensões do cabeçalho
+ * e repete as jogadas pela mesma ordem, obtendo exatamente o mesmo estado do jogo original.
+ * As jogadas são aplicadas diretamente ao motor, sem consola nem desenho do tabuleiro, e o diário é lido de um
+ * buffer (o ficheiro é mapeado em memória), por isso a reprodução faz milhões de jogadas por segundo.
+ * Serve para verificar tempos contestados na tabela de vencedores e para criar conjuntos de jogos de regressão.
+ */
+public class Replay {
+    private final ByteBuffer journal; //Diário a ler, posicionado na próxima jogada
+    private final Game game; //Jogo reconstruído
+    private final long startTime; //Hora de início do jogo original, em milissegundos desde 1970
+    private long elapsed; //Milissegundos entre o início e a última jogada aplicada
+    private int moves; //Jogadas aplicadas
+    private int op; //Operação da última jogada aplicada
+    private int cell; //Célula da última jogada aplicada
+    private MoveResult result; //Resultado da última jogada aplicada
+
+    /**
+     * Lê o cabeçalho de um diário e recria o tabuleiro, ainda sem jogadas.
+     * @param journal o conteúdo do diário, a partir do início
+     * @throws IOException se o diário não for válido
+     */
+    public Replay(ByteBuffer journal) throws IOException {
+        this.journal = journal;
+        try {
+            if (journal.getInt() != Journal.MAGIC || journal.get() != Journal.VERSION) {
+                throw new IOException("Not a game journal");
+            }
+            int rows = (int) getVarint();
+            int cols = (int) getVarint();
+            int bombs = (int) getVarint();
+            long seed = journal.getLong();
+            int startCell = (int) getVarint() - 1;
+            startTime = journal.getLong();
+            game = new Game(rows, cols, bombs);
+            game.initializeGame();
+            if (startCell >= 0) {
+                game.fillBombs(seed, startCell / cols, startCell % cols);
+            } else {
+                game.fillBombs(seed);
+            }
+            game.setStartTime(startTime);
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("Invalid game journal header", e);
+        }
+    }
+
+    /**
+     * Abre o diário guardado num ficheiro.
+     * @param file o ficheiro do diário
+     * @return a reprodução, ainda sem jogadas
+     * @throws IOException se não for possível ler o ficheiro ou se o diário não for válido
+     */
+    public static Replay open(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new Replay(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * @return o jogo reconstruído, no estado da última jogada aplicada
+     */
+    public Game getGame() {
+        return game;
+    }
+
+    /**
+     * @return a hora de início do jogo original, em milissegundos desde 1970
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * @return os milissegundos entre o início do jogo e a última jogada aplicada
+     */
+    public long getElapsed() {
+        return elapsed;
+    }
+
+    /**
+     * @return a quantidade de jogadas aplicadas
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return a operação da última jogada aplicada (Journal.OPEN, FLAG, CHORD ou HINT)
+     */
+    public int getOp() {
+        return op;
+    }
+
+    /**
+     * @return o índice da célula da última jogada aplicada
+     */
+    public int getCell() {
+        return cell;
+    }
+
+    /**
+     * @return o resultado da última jogada aplicada, ou null se ainda não foi aplicada nenhuma
+     */
+    public MoveResult getResult() {
+        return result;
+    }
+
+    /**
+     * Aplica a próxima jogada do diário.
+     * @return verdadeiro se foi aplicada uma jogada, falso se o diário acabou
+     * @throws IOException se a jogada não for válida para o tabuleiro
+     */
+    public boolean next() throws IOException {
+        if (!journal.hasRemaining()) {
+            return false;
+        }
+        try {
+            long move = getVarint();
+            elapsed += getVarint();
+            op = (int) (move & 7);
+            cell = (int) (move >>> 3);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated move " + (moves + 1));
+        }
+        int cols = game.getCols();
+        if (cell >= game.getRows() * cols) {
+            throw new IOException("Invalid cell in move " + (moves + 1) + ": " + cell);
+        }
+        switch (op) {
+            case Journal.OPEN:
+                result = game.open(cell / cols, cell % cols);
+                break;
+            case Journal.FLAG:
+                result = game.flag(cell / cols, cell % cols);
+                break;
+            case Journal.CHORD:
+                result = game.chord(cell / cols, cell % cols);
+                break;
+            case Journal.HINT:
+                result = game.hintAt(cell);
+                break;
+            default:
+                throw new IOException("Invalid operation in move " + (moves + 1) + ": " + op);
+        }
+        moves++;
+        return true;
+    }
+
+    /**
+     * Aplica todas as jogadas que faltam.
+     * @return o resultado da última jogada, ou null se o diário não tiver jogadas
+     * @throws IOException se alguma jogada não for válida para o tabuleiro
+     */
+    public MoveResult replayAll() throws IOException {
+        while (next()) {
+            //aplica a jogada seguinte
+        }
+        return result;
+    }
+
+    /**
+     * Lê um número sem sinal escrito em grupos de 7 bits.
+     */
+    private long getVarint() throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = journal.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Invalid varint");
+    }
+
+    /**
+     * Reproduz um diário e mostra o tabuleiro final, o resultado e o tempo do jogo.
+     * @param args o ficheiro do diário
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.out.println("Usage: java minesweeper.Replay <journal>");
+            return;
+        }
+        long start = System.nanoTime();
+        Replay replay = Replay.open(Path.of(args[0]));
+        MoveResult last = replay.replayAll();
+        long nanos = System.nanoTime() - start;
+        Game game = replay.getGame();
+        new BoardRenderer(System.out).render(game);
+        System.out.printf("%dx%d with %d bombs, seed %d%n", game.getRows(), game.getCols(), game.getAmountBombs(), game.getSeed());
+        System.out.println("Moves: " + replay.getMoves() + ", last result: " + last);
+        System.out.println("Game time: " + Game.formatTime(replay.getElapsed()));
+        System.out.printf("Replayed in %.3f ms%n", nanos / 1e6);
+    }
+}
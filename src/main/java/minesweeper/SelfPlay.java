@@ -0,0 +1,168 @@
+package minesweeper;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Joga muitos jogos com o {@link Solver}, em paralelo em todos os processadores, e mostra a taxa de vitórias,
+ * as jogadas por segundo e o tempo médio de cada jogo.
+ * O jogo número i usa a semente base + i, por isso o mesmo lote produz sempre os mesmos tabuleiros.
+ * Os jogos são divididos ao meio recursivamente num {@link ForkJoinPool} até cada tarefa ter poucos jogos.
+ * Os palpites usam a estimativa local do solver, ou as probabilidades exatas se forem pedidas
+ * ({@link Solver#setExactGuesses(boolean)}).
+ */
+public class SelfPlay {
+    private static final int GAMES_PER_TASK = 16; //Jogos a partir dos quais uma tarefa deixa de se dividir
+
+    /**
+     * Resultados somados de um conjunto de jogos.
+     */
+    public static class Stats {
+        private int games; //Jogos jogados
+        private int wins; //Jogos ganhos
+        private long moves; //Jogadas feitas
+        private long guesses; //Jogadas feitas sem certeza
+        private long nanos; //Tempo total dos jogos, somado entre threads
+
+        /**
+         * Junta os resultados de outro conjunto de jogos a estes.
+         * @param other os outros resultados
+         * @return estes resultados
+         */
+        Stats add(Stats other) {
+            games += other.games;
+            wins += other.wins;
+            moves += other.moves;
+            guesses += other.guesses;
+            nanos += other.nanos;
+            return this;
+        }
+
+        public int getGames() {
+            return games;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public long getMoves() {
+            return moves;
+        }
+
+        public long getGuesses() {
+            return guesses;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+    }
+
+    /**
+     * Joga um lote de jogos com as mesmas dimensões.
+     * @param rows o número de linhas
+     * @param cols o número de colunas
+     * @param amountBombs o número de bombas
+     * @param games a quantidade de jogos
+     * @param seed a semente do primeiro jogo
+     * @param pool o pool onde os jogos são jogados
+     * @return os resultados somados de todos os jogos
+     */
+    public static Stats play(int rows, int cols, int amountBombs, int games, long seed, ForkJoinPool pool) {
+        return play(rows, cols, amountBombs, games, seed, false, pool);
+    }
+
+    /**
+     * Joga um lote de jogos com as mesmas dimensões, escolhendo como o solver faz os palpites.
+     * @param rows o número de linhas
+     * @param cols o número de colunas
+     * @param amountBombs o número de bombas
+     * @param games a quantidade de jogos
+     * @param seed a semente do primeiro jogo
+     * @param exactGuesses verdadeiro para os palpites usarem as probabilidades exatas
+     * @param pool o pool onde os jogos são jogados
+     * @return os resultados somados de todos os jogos
+     */
+    public static Stats play(int rows, int cols, int amountBombs, int games, long seed, boolean exactGuesses,
+                             ForkJoinPool pool) {
+        return pool.invoke(new Batch(rows, cols, amountBombs, seed, exactGuesses, 0, games));
+    }
+
+    /**
+     * Tarefa que joga os jogos de um intervalo, dividindo-o enquanto for grande.
+     */
+    private static class Batch extends RecursiveTask<Stats> {
+        private static final long serialVersionUID = 1L; //Versão da serialização (herdada de ForkJoinTask)
+        private final int rows; //Linhas
+        private final int cols; //Colunas
+        private final int amountBombs; //Bombas
+        private final long seed; //Semente do jogo 0
+        private final boolean exactGuesses; //Se os palpites usam as probabilidades exatas
+        private final int from; //Primeiro jogo do intervalo
+        private final int to; //Jogo a seguir ao último do intervalo
+
+        Batch(int rows, int cols, int amountBombs, long seed, boolean exactGuesses, int from, int to) {
+            this.rows = rows;
+            this.cols = cols;
+            this.amountBombs = amountBombs;
+            this.seed = seed;
+            this.exactGuesses = exactGuesses;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Stats compute() {
+            if (to - from > GAMES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                Batch left = new Batch(rows, cols, amountBombs, seed, exactGuesses, from, middle);
+                left.fork();
+                Stats right = new Batch(rows, cols, amountBombs, seed, exactGuesses, middle, to).compute();
+                return right.add(left.join());
+            }
+            Stats stats = new Stats();
+            for (int i = from; i < to; i++) {
+                long start = System.nanoTime();
+                Game game = new Game(rows, cols, amountBombs);
+                game.initializeGame();
+                game.fillBombs(seed + i);
+                Solver solver = new Solver(game);
+                solver.setExactGuesses(exactGuesses);
+                if (solver.solve() == MoveResult.WIN) {
+                    stats.wins++;
+                }
+                stats.nanos += System.nanoTime() - start;
+                stats.games++;
+                stats.moves += solver.getMoves();
+                stats.guesses += solver.getGuesses();
+            }
+            return stats;
+        }
+    }
+
+    /**
+     * Joga um lote e mostra os resultados.
+     * @param args linhas, colunas, bombas, jogos, semente e "exact" para palpites com as probabilidades exatas
+     * (16 30 99 10000 1 por omissão, com a estimativa local)
+     */
+    public static void main(String[] args) {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+        int bombs = args.length > 2 ? Integer.parseInt(args[2]) : 99;
+        int games = args.length > 3 ? Integer.parseInt(args[3]) : 10000;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 1;
+        boolean exact = args.length > 5 && args[5].equals("exact");
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        long start = System.nanoTime();
+        Stats stats = play(rows, cols, bombs, games, seed, exact, pool);
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+        System.out.printf("%dx%d with %d bombs, %d games on %d threads, %s guesses%n", rows, cols, bombs, games,
+                pool.getParallelism(), exact ? "exact" : "estimated");
+        System.out.printf("Win rate: %.2f%% (%d wins)%n", 100.0 * stats.wins / stats.games, stats.wins);
+        System.out.printf("Guesses per game: %.2f%n", (double) stats.guesses / stats.games);
+        System.out.printf("Moves per second: %.0f%n", stats.moves * 1e9 / elapsed);
+        System.out.printf("Time per game: %.1f us (%.0f games/s)%n", stats.nanos / 1e3 / stats.games, stats.games * 1e9 / elapsed);
+    }
+}
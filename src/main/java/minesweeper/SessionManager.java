@@ -0,0 +1,114 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Classe que guarda os jogos em curso, um por sessão, identificados por um id de sessão.
+ * Cada sessão tem a sua própria instância de {@link Game}; o mapa é concorrente e não há nenhum lock global,
+ * por isso sessões diferentes podem ser jogadas em threads diferentes ao mesmo tempo.
+ * Uma sessão só deve ser usada por uma thread de cada vez.
+ */
+public class SessionManager {
+    private final ConcurrentHashMap<Long, Game> sessions = new ConcurrentHashMap<>(); //Jogos por id de sessão
+    private final AtomicLong nextId = new AtomicLong(); //Próximo id de sessão
+    private final Path journalDirectory; //Pasta onde ficam os diários das sessões, ou null se não houver diários
+    private final BoardPool boards; //Tabuleiros preparados em segundo plano, ou null para os preparar na hora
+
+    /**
+     * Cria um gestor de sessões sem diários das jogadas.
+     */
+    public SessionManager() {
+        this(null);
+    }
+
+    /**
+     * Cria um gestor de sessões que regista as jogadas de cada sessão num diário session-&lt;id&gt;.journal.
+     * @param journalDirectory a pasta dos diários (já existente), ou null para não registar as jogadas
+     */
+    public SessionManager(Path journalDirectory) {
+        this(journalDirectory, null);
+    }
+
+    /**
+     * Cria um gestor de sessões que retira os tabuleiros de uma {@link BoardPool} e lhe devolve os jogos das
+     * sessões terminadas.
+     * @param journalDirectory a pasta dos diários (já existente), ou null para não registar as jogadas
+     * @param boards a reserva de tabuleiros, ou null para preparar cada tabuleiro na hora
+     */
+    public SessionManager(Path journalDirectory, BoardPool boards) {
+        this.journalDirectory = journalDirectory;
+        this.boards = boards;
+    }
+
+    /**
+     * Cria uma nova sessão com um tabuleiro novo, já com as bombas colocadas e o cronómetro iniciado.
+     * @param rows o número de linhas
+     * @param cols o número de colunas
+     * @param amountBombs o número de bombas
+     * @return o id da sessão
+     * @throws IllegalArgumentException se as dimensões ou o número de bombas não forem válidos
+     * @throws UncheckedIOException se não for possível criar o diário da sessão
+     */
+    public long create(int rows, int cols, int amountBombs) {
+        Game game;
+        if (boards != null) {
+            game = boards.take(rows, cols, amountBombs);
+        } else {
+            game = new Game(rows, cols, amountBombs);
+            game.initializeGame();
+            game.fillBombs();
+        }
+        game.setStartTime(System.currentTimeMillis());
+        long id = nextId.incrementAndGet();
+        if (journalDirectory != null) {
+            try {
+                game.setJournal(Journal.create(journalDirectory.resolve("session-" + id + ".journal"), game));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        sessions.put(id, game);
+        return id;
+    }
+
+    /**
+     * @param id o id da sessão
+     * @return o jogo da sessão, ou null se a sessão não existir
+     */
+    public Game get(long id) {
+        return sessions.get(id);
+    }
+
+    /**
+     * Termina uma sessão, escrevendo e fechando o seu diário. Se houver uma {@link BoardPool}, o jogo é-lhe
+     * devolvido para ser reutilizado, por isso não pode continuar a ser usado depois de a sessão terminar.
+     * @param id o id da sessão
+     * @return o jogo da sessão, ou null se a sessão não existir
+     * @throws UncheckedIOException se não for possível escrever o diário da sessão
+     */
+    public Game remove(long id) {
+        Game game = sessions.remove(id);
+        if (game != null && game.getJournal() != null) {
+            try {
+                game.getJournal().close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (game != null && boards != null) {
+            boards.release(game);
+        }
+        return game;
+    }
+
+    /**
+     * @return a quantidade de sessões em curso
+     */
+    public int size() {
+        return sessions.size();
+    }
+}
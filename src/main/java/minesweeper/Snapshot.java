@@ -0,0 +1,122 @@
+package minesweeper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Guarda e carrega o estado completo de um jogo em curso (bombas, células abertas, bandeiras, contadores,
+ * tempo decorrido e nome do jogador) num ficheiro binário versionado.
+ * <p>
+ * Formato: um cabeçalho de {@value #HEADER_SIZE} bytes com magic, versão, dimensões, contadores, semente,
+ * tempo decorrido, estado do jogo ({@link GameState}) e nome, seguido do tabuleiro compacto do {@link Game} tal como está em memória
+ * (um byte por célula). Carregar não interpreta as células: o ficheiro é mapeado em memória e o tabuleiro
+ * é copiado de uma vez para o array do jogo, por isso um tabuleiro de 10000x10000 carrega no tempo de
+ * uma cópia de memória.
+ * O ficheiro é escrito primeiro num ficheiro temporário e depois substitui o anterior, por isso uma falha
+ * a meio de uma gravação não estraga o jogo guardado antes.
+ */
+public class Snapshot {
+    static final int HEADER_SIZE = 128; //Tamanho do cabeçalho; as células começam a seguir
+    private static final int MAGIC = 0x4D53534E; //"MSSN"
+    private static final int VERSION = 1; //Versão do formato
+    private static final int NAME_SIZE = HEADER_SIZE - 60; //Bytes disponíveis para o nome
+    private static final int FIRST_MOVE = 1; //Bit do estado: ainda nenhuma célula foi aberta
+
+    private Snapshot() {
+    }
+
+    /**
+     * Guarda o estado de um jogo.
+     * @param game o jogo, com o tabuleiro inicializado
+     * @param file o ficheiro (substituído se já existir)
+     * @throws IOException se não for possível escrever o ficheiro
+     */
+    public static void save(Game game, Path file) throws IOException {
+        byte[] name = game.getName() == null ? new byte[0] : game.getName().getBytes(StandardCharsets.UTF_8);
+        int nameLength = Math.min(name.length, NAME_SIZE);
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC).putInt(VERSION)
+                .putInt(game.getRows()).putInt(game.getCols()).putInt(game.getAmountBombs())
+                .putInt(game.getPositionsWithoutBombs()).putInt(game.getTotalFlags()).putInt(game.getGuessedBombs())
+                .putInt(game.getExplodedCell()).putInt(game.getStartCell())
+                .putLong(game.getSeed())
+                .putLong(game.getElapsed())
+                .put((byte) (game.isFirstMove() ? FIRST_MOVE : 0))
+                .put((byte) game.getState().ordinal())
+                .putShort((short) nameLength)
+                .put(name, 0, nameLength);
+        header.clear();
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer cells = ByteBuffer.wrap(game.getCells());
+            while (header.hasRemaining() || cells.hasRemaining()) {
+                channel.write(new ByteBuffer[]{header, cells});
+            }
+            channel.force(false);
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Carrega um jogo guardado. O cronómetro continua a partir do tempo decorrido quando o jogo foi guardado.
+     * O jogo carregado não tem diário das jogadas, por isso as suas vitórias não entram na tabela de vencedores.
+     * @param file o ficheiro
+     * @return o jogo
+     * @throws IOException se não for possível ler o ficheiro ou se não for um jogo guardado válido
+     */
+    public static Game load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new IOException("Not a saved game: " + file);
+            }
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.getInt(0) != MAGIC) {
+                throw new IOException("Not a saved game: " + file);
+            }
+            if (map.getInt(4) != VERSION) {
+                throw new IOException("Unsupported saved game version " + map.getInt(4) + ": " + file);
+            }
+            int rows = map.getInt(8);
+            int cols = map.getInt(12);
+            Game game;
+            try {
+                game = new Game(rows, cols, map.getInt(16));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid saved game: " + e.getMessage());
+            }
+            if (channel.size() != HEADER_SIZE + (long) rows * cols) {
+                throw new IOException("Truncated saved game: " + file);
+            }
+            int explodedCell = map.getInt(32);
+            int startCell = map.getInt(36);
+            if (explodedCell < -1 || explodedCell >= rows * cols || startCell < -1 || startCell >= rows * cols) {
+                throw new IOException("Invalid saved game cells: " + file);
+            }
+            int ordinal = map.get(57);
+            if (ordinal < 0 || ordinal >= GameState.values().length) {
+                throw new IOException("Invalid saved game state " + ordinal + ": " + file);
+            }
+            int nameLength = map.getShort(58);
+            if (nameLength < 0 || nameLength > NAME_SIZE) {
+                throw new IOException("Invalid saved game name length " + nameLength + ": " + file);
+            }
+            byte[] cells = new byte[rows * cols];
+            map.get(HEADER_SIZE, cells);
+            byte[] name = new byte[nameLength];
+            map.get(60, name);
+            game.restore(cells, map.getInt(20), map.getInt(24), map.getInt(28), explodedCell, startCell,
+                    map.getLong(40), (map.get(56) & FIRST_MOVE) != 0, GameState.values()[ordinal]);
+            game.setName(new String(name, StandardCharsets.UTF_8));
+            game.setStartTime(System.currentTimeMillis() - map.getLong(48));
+            return game;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package minesweeper;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Resolve automaticamente um jogo de MineSweeper, jogando contra o motor ({@link Game}) sem consola.
+ * O solver só usa a informação que o jogador vê ({@link Game#symbolCode(int)} e o número total de bombas),
+ * nunca as bombas escondidas. Em cada passo tenta, por esta ordem:
+ * <ol>
+ *   <li>deduções de um só número: se as bandeiras à volta de um número já o completam, as outras vizinhas
+ *   fechadas são seguras; se as vizinhas fechadas são exatamente as bombas que faltam, levam bandeira;</li>
+ *   <li>deduções por subconjuntos na fronteira: se as vizinhas fechadas de um número A estão todas à volta
+ *   de um número B, as restantes vizinhas de B têm exatamente as bombas que faltam a B menos as que faltam a A;</li>
+ *   <li>um palpite na célula com a menor probabilidade estimada de ter bomba; com
+ *   {@link #setExactGuesses(boolean)} a probabilidade é a exata, calculada por {@link Probabilities}.</li>
+ * </ol>
+ * As deduções de um só número são feitas a partir de uma pilha de células alteradas, por isso cada jogada
+ * só volta a examinar os números à volta das células que mudaram.
+ * Quando todas as células sem bomba estão abertas, as restantes levam bandeira para que o motor dê a vitória.
+ */
+public class Solver {
+    private final Game game; //Jogo a resolver
+    private final int rows; //Linhas
+    private final int cols; //Colunas
+    private final int[] pending; //Pilha de números a examinar pelas deduções de um só número
+    private final boolean[] isPending; //Se a célula já está na pilha
+    private int pendingCount; //Quantidade de células na pilha
+    private int[] constraintCells = new int[64]; //Vizinhas fechadas de cada número da fronteira, 8 posições por número
+    private int[] constraintCenter = new int[8]; //Índice de cada número da fronteira
+    private int[] constraintSize = new int[8]; //Quantidade de vizinhas fechadas de cada número da fronteira
+    private int[] constraintMines = new int[8]; //Bombas que faltam encontrar à volta de cada número da fronteira
+    private int[] constraintOf; //Número da fronteira de cada célula aberta, ou -1, criado na primeira dedução por subconjuntos
+    private int constraintCount; //Quantidade de números na fronteira
+    private double[] risk; //Probabilidade estimada de bomba de cada célula, criado no primeiro palpite
+    private boolean exactGuesses; //Se os palpites usam as probabilidades exatas em vez da estimativa local
+    private int hidden; //Células fechadas e sem bandeira
+    private int flags; //Bandeiras colocadas pelo solver
+    private int moves; //Jogadas feitas
+    private int guesses; //Jogadas feitas sem certeza
+    private MoveResult result = MoveResult.OK; //Resultado da última jogada
+
+    /**
+     * Cria um solver para um jogo já inicializado e com as bombas colocadas, ainda por começar.
+     * @param game o jogo a resolver
+     */
+    public Solver(Game game) {
+        this.game = game;
+        this.rows = game.getRows();
+        this.cols = game.getCols();
+        this.pending = new int[rows * cols];
+        this.isPending = new boolean[rows * cols];
+        this.hidden = rows * cols;
+    }
+
+    /**
+     * @return as jogadas feitas (aberturas e bandeiras)
+     */
+    public int getMoves() {
+        return moves;
+    }
+
+    /**
+     * @return as jogadas feitas sem certeza
+     */
+    public int getGuesses() {
+        return guesses;
+    }
+
+    /**
+     * Define como são escolhidos os palpites. A estimativa local (por omissão) é rápida; as probabilidades exatas
+     * de {@link Probabilities} ganham mais jogos, mas cada palpite custa a contagem de toda a fronteira.
+     * @param exactGuesses verdadeiro para usar as probabilidades exatas
+     */
+    public void setExactGuesses(boolean exactGuesses) {
+        this.exactGuesses = exactGuesses;
+    }
+
+    /**
+     * Joga até o jogo acabar.
+     * @return WIN ou LOSE
+     */
+    public MoveResult solve() {
+        openFirst();
+        while (!game.isGameOver()) {
+            step();
+        }
+        return result;
+    }
+
+    /**
+     * Joga apenas por dedução, sem nunca arriscar um palpite.
+     * Usado para saber se um tabuleiro pode ser resolvido sem adivinhar a partir da primeira jogada.
+     * @return verdadeiro se o jogo foi ganho, falso se foi preciso um palpite para continuar
+     */
+    public boolean solveWithoutGuessing() {
+        openFirst();
+        while (!game.isGameOver() && deduce()) {
+            //cada ronda de deduções faz pelo menos uma jogada
+        }
+        return result == MoveResult.WIN;
+    }
+
+    /**
+     * Faz uma ronda de jogadas: deduções de um só número, depois por pares de números e, se nenhuma resultar, um palpite.
+     * @return o resultado da última jogada
+     */
+    public MoveResult step() {
+        if (!deduce() && !game.isGameOver()) {
+            guess();
+        }
+        return result;
+    }
+
+    /**
+     * Abre a primeira célula, se o jogo ainda não começou: a célula escolhida pelo gerador
+     * ({@link Game#getStartCell()}) ou, se não houver, a do centro. A primeira jogada nunca é numa bomba.
+     */
+    private void openFirst() {
+        if (!game.isGameOver() && hidden == rows * cols) {
+            int start = game.getStartCell();
+            open(start >= 0 ? start : (rows / 2) * cols + cols / 2);
+        }
+    }
+
+    /**
+     * Faz as jogadas que se podem deduzir com certeza.
+     * @return verdadeiro se foi feita alguma jogada
+     */
+    private boolean deduce() {
+        int minesLeft = game.getAmountBombs() - flags;
+        if (minesLeft == hidden) {
+            revealAll(true); //Todas as células sem bomba estão abertas
+            return true;
+        }
+        if (minesLeft == 0) {
+            revealAll(false); //Todas as bombas têm bandeira
+            return true;
+        }
+        return singlePoint() || pairs();
+    }
+
+    /**
+     * Abre ou marca com bandeira todas as células fechadas que restam.
+     * @param mines verdadeiro para colocar bandeiras, falso para abrir
+     */
+    private void revealAll(boolean mines) {
+        for (int i = 0; i < pending.length && !game.isGameOver(); i++) {
+            if (game.symbolCode(i) == Game.HIDDEN_CODE) {
+                if (mines) {
+                    flag(i);
+                } else {
+                    open(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Aplica as deduções de um só número aos números da pilha até a pilha ficar vazia.
+     * @return verdadeiro se foi feita alguma jogada
+     */
+    private boolean singlePoint() {
+        boolean moved = false;
+        while (pendingCount > 0 && !game.isGameOver()) {
+            int index = pending[--pendingCount];
+            isPending[index] = false;
+            int code = game.symbolCode(index);
+            if (code == 0 || code > 8) {
+                continue;
+            }
+            int row = index / cols;
+            int col = index % cols;
+            int closed = 0;
+            int flagged = 0;
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    int neighbour = game.symbolCode(i * cols + j);
+                    if (neighbour == Game.HIDDEN_CODE) {
+                        closed++;
+                    } else if (neighbour == Game.FLAG_CODE) {
+                        flagged++;
+                    }
+                }
+            }
+            int missing = code - flagged;
+            if (closed == 0 || (missing != 0 && missing != closed)) {
+                continue;
+            }
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    int neighbour = i * cols + j;
+                    if (game.symbolCode(neighbour) == Game.HIDDEN_CODE) {
+                        if (missing == 0) {
+                            open(neighbour);
+                        } else {
+                            flag(neighbour);
+                        }
+                    }
+                }
+            }
+            moved = true;
+        }
+        return moved;
+    }
+
+    /**
+     * Aplica as deduções por pares a todos os números da fronteira que partilham vizinhas fechadas.
+     * Deixa as restrições da fronteira calculadas para o palpite, se nenhuma dedução for encontrada.
+     * @return verdadeiro se foi feita alguma jogada
+     */
+    private boolean pairs() {
+        buildConstraints();
+        boolean moved = false;
+        for (int a = 0; a < constraintCount && !game.isGameOver(); a++) {
+            int row = constraintCenter[a] / cols;
+            int col = constraintCenter[a] % cols;
+            //Dois números só partilham vizinhas se estiverem a 2 células ou menos um do outro
+            for (int i = Math.max(row - 2, 0); i <= Math.min(row + 2, rows - 1); i++) {
+                for (int j = Math.max(col - 2, 0); j <= Math.min(col + 2, cols - 1); j++) {
+                    int b = constraintOf[i * cols + j];
+                    if (b >= 0 && b != a) {
+                        moved |= applyPair(a, b);
+                    }
+                }
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * Calcula as restrições da fronteira: para cada número com vizinhas fechadas, essas vizinhas
+     * (por ordem crescente de índice) e a quantidade de bombas que lhes falta.
+     */
+    private void buildConstraints() {
+        if (constraintOf == null) {
+            constraintOf = new int[rows * cols];
+        }
+        Arrays.fill(constraintOf, -1);
+        constraintCount = 0;
+        for (int index = 0; index < constraintOf.length; index++) {
+            int code = game.symbolCode(index);
+            if (code == 0 || code > 8) {
+                continue;
+            }
+            if (constraintCount == constraintSize.length) {
+                constraintCenter = Arrays.copyOf(constraintCenter, constraintCount * 2);
+                constraintSize = Arrays.copyOf(constraintSize, constraintCount * 2);
+                constraintMines = Arrays.copyOf(constraintMines, constraintCount * 2);
+                constraintCells = Arrays.copyOf(constraintCells, constraintCount * 16);
+            }
+            int row = index / cols;
+            int col = index % cols;
+            int size = 0;
+            int missing = code;
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    int neighbour = i * cols + j;
+                    int symbol = game.symbolCode(neighbour);
+                    if (symbol == Game.HIDDEN_CODE) {
+                        constraintCells[constraintCount * 8 + size++] = neighbour;
+                    } else if (symbol == Game.FLAG_CODE) {
+                        missing--;
+                    }
+                }
+            }
+            if (size > 0) {
+                constraintCenter[constraintCount] = index;
+                constraintSize[constraintCount] = size;
+                constraintMines[constraintCount] = missing;
+                constraintOf[index] = constraintCount++;
+            }
+        }
+    }
+
+    /**
+     * Compara duas restrições. Se as bombas que B tem a mais do que A enchem todas as células que só B tem,
+     * essas células têm bomba e as que só A tem são seguras. Quando A está contida em B isto cobre os dois
+     * casos das deduções por subconjuntos (a diferença não tem bombas, ou só tem bombas, visitando A e B
+     * pelas duas ordens).
+     * @param a a primeira restrição
+     * @param b a segunda restrição
+     * @return verdadeiro se foi feita alguma jogada
+     */
+    private boolean applyPair(int a, int b) {
+        int sizeA = constraintSize[a];
+        int sizeB = constraintSize[b];
+        int shared = 0;
+        for (int i = 0, j = 0; i < sizeA && j < sizeB; ) {
+            int cellA = constraintCells[a * 8 + i];
+            int cellB = constraintCells[b * 8 + j];
+            if (cellA == cellB) {
+                shared++;
+                i++;
+                j++;
+            } else if (cellA < cellB) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int onlyA = sizeA - shared;
+        int onlyB = sizeB - shared;
+        if (shared == 0 || onlyA + onlyB == 0 || constraintMines[b] - constraintMines[a] != onlyB) {
+            return false;
+        }
+        boolean moved = false;
+        for (int i = 0; i < sizeA && !game.isGameOver(); i++) {
+            int cell = constraintCells[a * 8 + i];
+            if (!contains(b, cell) && game.symbolCode(cell) == Game.HIDDEN_CODE) {
+                open(cell);
+                moved = true;
+            }
+        }
+        for (int j = 0; j < sizeB && !game.isGameOver(); j++) {
+            int cell = constraintCells[b * 8 + j];
+            if (!contains(a, cell) && game.symbolCode(cell) == Game.HIDDEN_CODE) {
+                flag(cell);
+                moved = true;
+            }
+        }
+        return moved;
+    }
+
+    /**
+     * @param constraint a restrição
+     * @param cell o índice da célula
+     * @return verdadeiro se a célula é uma das vizinhas fechadas da restrição
+     */
+    private boolean contains(int constraint, int cell) {
+        for (int k = 0; k < constraintSize[constraint]; k++) {
+            if (constraintCells[constraint * 8 + k] == cell) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Abre a célula com a menor probabilidade de ter bomba: a exata, se {@link #setExactGuesses(boolean)} foi
+     * pedido, ou a estimada por {@link #estimateSafest()}.
+     * Os componentes das probabilidades exatas são contados no pool onde o solver corre (o do {@link SelfPlay})
+     * ou, fora de um pool, no pool comum.
+     */
+    private void guess() {
+        int best;
+        if (exactGuesses) {
+            ForkJoinPool pool = ForkJoinTask.inForkJoinPool() ? ForkJoinTask.getPool() : ForkJoinPool.commonPool();
+            best = new Probabilities(game, pool).getSafest();
+        } else {
+            best = estimateSafest();
+        }
+        guesses++;
+        open(best);
+    }
+
+    /**
+     * Estima a célula fechada com a menor probabilidade de ter bomba.
+     * Na fronteira a estimativa é a maior razão entre as bombas que faltam e as vizinhas fechadas dos números
+     * à volta; longe da fronteira é a densidade das bombas que faltam nas células fechadas.
+     * Usa as restrições calculadas por {@link #pairs()}, que não fez nenhuma jogada.
+     * @return o índice da célula, ou -1 se não houver células fechadas
+     */
+    private int estimateSafest() {
+        if (risk == null) {
+            risk = new double[rows * cols];
+        }
+        Arrays.fill(risk, -1);
+        for (int c = 0; c < constraintCount; c++) {
+            double p = (double) constraintMines[c] / constraintSize[c];
+            for (int k = 0; k < constraintSize[c]; k++) {
+                int cell = constraintCells[c * 8 + k];
+                risk[cell] = Math.max(risk[cell], p);
+            }
+        }
+        double density = (double) (game.getAmountBombs() - flags) / hidden;
+        int best = -1;
+        double bestRisk = Double.MAX_VALUE;
+        for (int index = 0; index < risk.length; index++) {
+            if (game.symbolCode(index) != Game.HIDDEN_CODE) {
+                continue;
+            }
+            double p = risk[index] < 0 ? density : risk[index];
+            if (p < bestRisk) {
+                bestRisk = p;
+                best = index;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Abre uma célula e acrescenta à pilha as células abertas e as suas vizinhas.
+     * @param index o índice da célula
+     */
+    private void open(int index) {
+        moves++;
+        result = game.open(index / cols, index % cols);
+        if (result != MoveResult.OK && result != MoveResult.WIN) {
+            return; //Bomba, ou jogada inválida (por exemplo sem células fechadas): nada foi aberto
+        }
+        int[] revealed = game.getRevealedCells();
+        int count = game.getRevealedCount();
+        hidden -= count;
+        for (int k = 0; k < count; k++) {
+            pushAround(revealed[k]);
+        }
+    }
+
+    /**
+     * Coloca uma bandeira numa célula e acrescenta as vizinhas à pilha.
+     * @param index o índice da célula
+     */
+    private void flag(int index) {
+        moves++;
+        result = game.flag(index / cols, index % cols);
+        if (result != MoveResult.OK && result != MoveResult.WIN) {
+            return;
+        }
+        hidden--;
+        flags++;
+        pushAround(index);
+    }
+
+    /**
+     * Acrescenta à pilha uma célula e as suas vizinhas, se ainda não estiverem na pilha.
+     * @param index o índice da célula
+     */
+    private void pushAround(int index) {
+        int row = index / cols;
+        int col = index % cols;
+        for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+            for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                int neighbour = i * cols + j;
+                if (!isPending[neighbour]) {
+                    isPending[neighbour] = true;
+                    pending[pendingCount++] = neighbour;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package minesweeper;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fluxo das mudanças de um {@link Game} para os espectadores, escrito pela thread que joga e lido pelo
+ * {@link SpectatorServer}.
+ * <p>
+ * Durante uma jogada o jogo marca as células em que escreve; no fim da jogada ({@link #commit()}) cada célula
+ * marcada cujo símbolo mudou é acrescentada a um buffer circular de bytes, com {@value #RECORD_SIZE} bytes por
+ * mudança (índice da célula e código do símbolo), e a posição de escrita é publicada. O jogador nunca espera
+ * pelos espectadores: não há locks nem chamadas ao sistema na jogada, e um espectador lento que fique mais de
+ * meia volta atrás recebe uma imagem completa ({@link #keyframe()}) em vez das mudanças que perdeu.
+ * Numa jogada com muitas mudanças a posição de escrita é publicada a cada meia volta, por isso o produtor
+ * nunca tem mais de meia volta escrita e por publicar, e a outra metade do buffer pode ser lida em segurança.
+ * <p>
+ * A imagem completa é uma cópia dos símbolos mantida pelo produtor. Um espectador lê a posição de escrita antes
+ * de copiar a imagem e aplica as mudanças a partir dessa posição, por isso as mudanças escritas durante a cópia
+ * voltam a ser enviadas e o resultado fica sempre certo.
+ * <p>
+ * Quando o servidor é fechado, o fluxo fica fechado ({@link #close()}) e o jogo larga-o no fim da jogada seguinte,
+ * na sua própria thread, em vez de continuar a escrever num buffer que ninguém lê.
+ */
+public class SpectatorFeed {
+    static final int RECORD_SIZE = 5; //Bytes de cada mudança: índice (int) e código do símbolo (byte)
+    private final Engine game; //Jogo observado
+    private final byte[] ring; //Buffer circular das mudanças
+    private final int mask; //Máscara das posições no buffer circular
+    private final AtomicLong head = new AtomicLong(); //Bytes escritos desde o início (publicado no fim da jogada)
+    private final byte[] shown; //Símbolo de cada célula depois da última jogada publicada
+    private final long[] marked; //Bit de cada célula marcada na jogada em curso
+    private int[] dirty = new int[64]; //Células marcadas na jogada em curso
+    private int dirtyCount; //Quantidade de células marcadas
+    private volatile Runnable onCommit; //Avisado depois de cada jogada publicada, ou null
+    private volatile boolean closed; //Se ninguém vai voltar a ler o fluxo
+
+    /**
+     * Cria o fluxo de um jogo, a partir dos símbolos que o jogo mostra agora.
+     * @param game o jogo
+     * @param ringBytes o tamanho do buffer circular (arredondado para uma potência de 2)
+     */
+    public SpectatorFeed(Engine game, int ringBytes) {
+        this.game = game;
+        int size = Integer.highestOneBit(Math.max(ringBytes, 64) - 1) << 1;
+        this.ring = new byte[size];
+        this.mask = size - 1;
+        int cells = game.getRows() * game.getCols();
+        this.shown = new byte[cells];
+        for (int i = 0; i < cells; i++) {
+            shown[i] = (byte) game.symbolCode(i);
+        }
+        this.marked = new long[(cells + 63) >>> 6];
+    }
+
+    /**
+     * Marca uma célula que vai ser escrita pela jogada em curso. Só é chamado pela thread que joga.
+     * @param index o índice da célula
+     */
+    void mark(int index) {
+        long bit = 1L << index;
+        if ((marked[index >>> 6] & bit) != 0) {
+            return;
+        }
+        marked[index >>> 6] |= bit;
+        if (dirtyCount == dirty.length) {
+            dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+        }
+        dirty[dirtyCount++] = index;
+    }
+
+    /**
+     * Publica as mudanças da jogada: escreve no buffer circular as células marcadas cujo símbolo mudou
+     * e avança a posição de escrita. Só é chamado pela thread que joga.
+     */
+    void commit() {
+        if (dirtyCount == 0) {
+            return;
+        }
+        long start = head.get();
+        long published = start;
+        long position = start;
+        for (int k = 0; k < dirtyCount; k++) {
+            int index = dirty[k];
+            marked[index >>> 6] &= ~(1L << index);
+            int code = game.symbolCode(index);
+            if (code == shown[index]) {
+                continue;
+            }
+            shown[index] = (byte) code;
+            if (position - published + RECORD_SIZE > capacity()) {
+                published = position;
+                head.lazySet(published);
+            }
+            ring[(int) position & mask] = (byte) (index >>> 24);
+            ring[(int) (position + 1) & mask] = (byte) (index >>> 16);
+            ring[(int) (position + 2) & mask] = (byte) (index >>> 8);
+            ring[(int) (position + 3) & mask] = (byte) index;
+            ring[(int) (position + 4) & mask] = (byte) code;
+            position += RECORD_SIZE;
+        }
+        dirtyCount = 0;
+        if (position != start) {
+            head.lazySet(position);
+            Runnable listener = onCommit;
+            if (listener != null) {
+                listener.run();
+            }
+        }
+    }
+
+    /**
+     * Define quem é avisado depois de cada jogada publicada (na thread que joga, por isso tem de ser rápido).
+     * @param onCommit o aviso, ou null
+     */
+    void setOnCommit(Runnable onCommit) {
+        this.onCommit = onCommit;
+    }
+
+    /**
+     * Fecha o fluxo: deixa de avisar o servidor e o jogo larga-o no fim da jogada seguinte. Pode ser chamado
+     * por qualquer thread.
+     */
+    void close() {
+        onCommit = null;
+        closed = true;
+    }
+
+    /**
+     * @return verdadeiro se o fluxo foi fechado e o jogo o deve largar
+     */
+    boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * @return a posição de escrita publicada, em bytes desde o início
+     */
+    long head() {
+        return head.get();
+    }
+
+    /**
+     * @return os bytes de mudanças que um espectador pode ter por receber (metade do buffer circular)
+     */
+    int capacity() {
+        return ring.length >>> 1;
+    }
+
+    /**
+     * @return o número de linhas do jogo
+     */
+    int getRows() {
+        return game.getRows();
+    }
+
+    /**
+     * @return o número de colunas do jogo
+     */
+    int getCols() {
+        return game.getCols();
+    }
+
+    /**
+     * Copia mudanças do buffer circular para um buffer de saída.
+     * @param from a posição da primeira mudança
+     * @param out o buffer de saída
+     * @param length os bytes a copiar (múltiplo de {@value #RECORD_SIZE})
+     * @return verdadeiro se a cópia é válida, falso se o produtor escreveu por cima entretanto
+     */
+    boolean copy(long from, ByteBuffer out, int length) {
+        int start = (int) from & mask;
+        int first = Math.min(length, ring.length - start);
+        out.put(ring, start, first);
+        out.put(ring, 0, length - first);
+        return head.get() - from <= capacity();
+    }
+
+    /**
+     * Cria uma imagem completa: 'K', linhas e colunas (int) e um byte com o código de cada célula.
+     * @return a imagem
+     */
+    byte[] keyframe() {
+        byte[] frame = new byte[9 + shown.length];
+        ByteBuffer.wrap(frame).put((byte) 'K').putInt(game.getRows()).putInt(game.getCols());
+        System.arraycopy(shown, 0, frame, 9, shown.length);
+        return frame;
+    }
+}
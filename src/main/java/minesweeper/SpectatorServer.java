@@ -0,0 +1,405 @@
+package minesweeper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Servidor local que transmite os jogos em curso a espectadores, numa única thread com um Selector
+ * (I/O não bloqueante).
+ * <p>
+ * Cada jogo publicado ({@link #publish(long, Game)}) tem um {@link SpectatorFeed}, escrito pela thread que joga.
+ * Um espectador liga-se e envia o id do jogo numa linha; recebe primeiro uma imagem completa e depois lotes de
+ * mudanças, em binário:
+ * <ul>
+ *   <li>'K', linhas (int), colunas (int) e o código do símbolo de cada célula (um byte por célula);</li>
+ *   <li>'D', quantidade de mudanças (int) e, por cada mudança, o índice da célula (int) e o novo código (byte).</li>
+ * </ul>
+ * Os códigos são os de {@link Game#symbolCode(int)}. Se o jogo não existir, o servidor responde
+ * "ERROR unknown game" e fecha a ligação; quando o jogo deixa de ser publicado, as ligações são fechadas.
+ * <p>
+ * As mudanças de cada espectador são copiadas diretamente do buffer circular do jogo para um buffer de escrita
+ * por espectador, em lotes, e escritas sem bloquear. Um espectador que não consegue receber fica com as escritas
+ * pendentes e deixa de ser servido até o canal voltar a aceitar dados; se entretanto ficar mais atrasado do que
+ * o buffer circular ou do que uma imagem completa, as mudanças que perdeu são juntadas numa nova imagem completa.
+ * A thread que joga só acorda o Selector quando este está parado à espera.
+ */
+public class SpectatorServer implements Runnable, Closeable {
+    private static final int BATCH_BYTES = 16 * 1024; //Tamanho do buffer de escrita de cada espectador
+    private static final int MAX_WAIT_MILLIS = 100; //Tempo máximo que o Selector fica parado
+    private final Selector selector; //Selector da thread do servidor
+    private final ServerSocketChannel server; //Canal que aceita os espectadores
+    private final int ringBytes; //Tamanho do buffer circular de cada jogo
+    private final Map<Long, Stream> streams = new ConcurrentHashMap<>(); //Jogos publicados por id
+    private final ConcurrentLinkedQueue<Stream> ended = new ConcurrentLinkedQueue<>(); //Jogos cujas ligações fecham
+    private final AtomicBoolean waiting = new AtomicBoolean(); //Se o Selector está parado à espera
+    private final AtomicInteger watching = new AtomicInteger(); //Espectadores ligados a jogos
+    private final ByteBuffer input = ByteBuffer.allocate(64); //Buffer de leitura, reutilizado
+    private final Runnable wakeup; //Acorda o Selector se estiver parado (chamado pela thread que joga)
+    private volatile boolean closed; //Se o servidor foi fechado
+
+    /**
+     * Um jogo publicado e os seus espectadores (estes só são usados pela thread do servidor).
+     */
+    private static final class Stream {
+        private final Game game; //Jogo publicado
+        private final SpectatorFeed feed; //Mudanças do jogo
+        private final List<Watcher> watchers = new ArrayList<>(); //Espectadores do jogo
+        private long sent; //Posição de escrita do jogo na última vez que os espectadores foram servidos
+
+        Stream(Game game, SpectatorFeed feed) {
+            this.game = game;
+            this.feed = feed;
+        }
+    }
+
+    /**
+     * Estado de uma ligação de um espectador.
+     */
+    private static final class Watcher {
+        private final SocketChannel channel; //Canal do espectador
+        private final ByteBuffer batch = ByteBuffer.allocateDirect(BATCH_BYTES); //Buffer dos lotes, reutilizado
+        private ByteBuffer pending = ByteBuffer.allocate(0); //Bytes por enviar (um lote ou uma imagem completa)
+        private byte[] line = new byte[24]; //Id do jogo a ser lido
+        private int lineLength; //Bytes do id lidos até agora
+        private Stream stream; //Jogo observado, ou null enquanto o id não foi lido
+        private long position; //Posição da próxima mudança a enviar
+        private boolean blocked; //O canal não aceitou tudo na última escrita
+
+        Watcher(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    /**
+     * Abre o servidor na interface local.
+     * @param port a porta TCP (0 para escolher uma porta livre)
+     * @param ringBytes o tamanho do buffer circular das mudanças de cada jogo
+     * @throws IOException se não for possível abrir a porta
+     */
+    public SpectatorServer(int port, int ringBytes) throws IOException {
+        this.ringBytes = ringBytes;
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        wakeup = () -> {
+            if (waiting.get() && waiting.compareAndSet(true, false)) {
+                selector.wakeup();
+            }
+        };
+    }
+
+    /**
+     * @return a porta onde o servidor está a aceitar espectadores
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * Publica um jogo para os espectadores. Deve ser chamado pela thread que joga, antes da jogada seguinte.
+     * Se o id já estiver publicado, o jogo anterior deixa de o ser, por isso também tem de ser desta thread.
+     * @param id o id do jogo, que os espectadores enviam ao ligar
+     * @param game o jogo
+     */
+    public void publish(long id, Game game) {
+        SpectatorFeed feed = new SpectatorFeed(game, ringBytes);
+        feed.setOnCommit(wakeup);
+        game.setSpectators(feed);
+        Stream previous = streams.put(id, new Stream(game, feed));
+        if (previous != null) {
+            end(previous);
+        }
+        if (closed) {
+            //O servidor foi fechado entretanto e pode já não ter visto este jogo
+            feed.close();
+            streams.remove(id);
+        }
+    }
+
+    /**
+     * Deixa de publicar um jogo; os seus espectadores recebem o que faltar enviar e as ligações são fechadas.
+     * Deve ser chamado pela thread que joga, porque retira o fluxo do jogo ({@link Game#setSpectators}).
+     * @param id o id do jogo
+     */
+    public void unpublish(long id) {
+        Stream stream = streams.remove(id);
+        if (stream != null) {
+            end(stream);
+        }
+    }
+
+    private void end(Stream stream) {
+        stream.game.setSpectators(null);
+        stream.feed.setOnCommit(null);
+        ended.add(stream);
+        selector.wakeup();
+    }
+
+    /**
+     * @return a quantidade de espectadores ligados a jogos
+     */
+    public int getWatchers() {
+        return watching.get();
+    }
+
+    /**
+     * Inicia a thread do servidor.
+     * @return a thread
+     */
+    public Thread start() {
+        Thread thread = new Thread(this, "spectator-server");
+        thread.setDaemon(true);
+        thread.start();
+        return thread;
+    }
+
+    @Override
+    public void run() {
+        while (!closed) {
+            try {
+                waiting.set(true);
+                if (hasNews()) {
+                    waiting.set(false);
+                    selector.selectNow();
+                } else {
+                    selector.select(MAX_WAIT_MILLIS);
+                    waiting.set(false);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    handle(key);
+                }
+                Stream stream;
+                while ((stream = ended.poll()) != null) {
+                    for (int i = stream.watchers.size() - 1; i >= 0; i--) {
+                        Watcher watcher = stream.watchers.get(i);
+                        pump(watcher);
+                        close(watcher);
+                    }
+                }
+                for (Stream published : streams.values()) {
+                    long head = published.feed.head();
+                    if (head != published.sent) {
+                        published.sent = head;
+                        //De trás para a frente, porque um espectador cuja ligação falhe é retirado da lista
+                        for (int i = published.watchers.size() - 1; i >= 0; i--) {
+                            Watcher watcher = published.watchers.get(i);
+                            if (!watcher.blocked) {
+                                pump(watcher);
+                            }
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                if (!closed) {
+                    System.err.println("Spectator server error: " + e.getMessage());
+                }
+            }
+        }
+        for (SelectionKey key : selector.keys()) {
+            try {
+                key.channel().close();
+            } catch (IOException e) {
+                // a ligação já está fechada
+            }
+        }
+        try {
+            selector.close();
+        } catch (IOException e) {
+            // o Selector já está fechado
+        }
+    }
+
+    /**
+     * @return verdadeiro se algum jogo publicou mudanças que os espectadores ainda não receberam
+     */
+    private boolean hasNews() {
+        if (!ended.isEmpty()) {
+            return true;
+        }
+        for (Stream stream : streams.values()) {
+            if (stream.feed.head() != stream.sent) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Trata um evento do Selector: um novo espectador, o id do jogo enviado por um espectador ou um canal
+     * que voltou a aceitar dados.
+     */
+    private void handle(SelectionKey key) throws IOException {
+        if (key.isAcceptable()) {
+            SocketChannel channel;
+            while ((channel = server.accept()) != null) {
+                channel.configureBlocking(false);
+                channel.register(selector, SelectionKey.OP_READ, new Watcher(channel));
+            }
+            return;
+        }
+        Watcher watcher = (Watcher) key.attachment();
+        try {
+            if (key.isReadable()) {
+                read(watcher);
+            }
+            if (key.isValid() && key.isWritable()) {
+                watcher.blocked = false;
+                pump(watcher);
+            }
+        } catch (IOException e) {
+            close(watcher);
+        }
+    }
+
+    /**
+     * Lê o id do jogo de um espectador e começa a servi-lo com uma imagem completa. Depois do id,
+     * a leitura só serve para saber quando o espectador fecha a ligação.
+     */
+    private void read(Watcher watcher) throws IOException {
+        input.clear();
+        int read = watcher.channel.read(input);
+        if (read < 0) {
+            close(watcher);
+            return;
+        }
+        input.flip();
+        while (watcher.stream == null && input.hasRemaining()) {
+            byte b = input.get();
+            if (b != '\n') {
+                if (b != '\r' && watcher.lineLength < watcher.line.length) {
+                    watcher.line[watcher.lineLength++] = b;
+                }
+                continue;
+            }
+            String text = new String(watcher.line, 0, watcher.lineLength, StandardCharsets.US_ASCII).trim();
+            Stream stream = null;
+            try {
+                stream = streams.get(Long.parseLong(text));
+            } catch (NumberFormatException e) {
+                // id inválido, tratado como jogo desconhecido
+            }
+            if (stream == null) {
+                watcher.channel.write(ByteBuffer.wrap("ERROR unknown game\n".getBytes(StandardCharsets.US_ASCII)));
+                close(watcher);
+                return;
+            }
+            watcher.stream = stream;
+            stream.watchers.add(watcher);
+            watching.incrementAndGet();
+            keyframe(watcher);
+            pump(watcher);
+        }
+    }
+
+    /**
+     * Prepara uma imagem completa para um espectador. A posição é lida antes da cópia, por isso as mudanças
+     * escritas durante a cópia são enviadas a seguir.
+     */
+    private static void keyframe(Watcher watcher) {
+        SpectatorFeed feed = watcher.stream.feed;
+        watcher.position = feed.head();
+        watcher.pending = ByteBuffer.wrap(feed.keyframe());
+    }
+
+    /**
+     * Envia a um espectador tudo o que o canal aceitar sem bloquear: o que estava pendente e depois lotes de
+     * mudanças, ou uma imagem completa se o espectador estiver demasiado atrasado.
+     */
+    private void pump(Watcher watcher) throws IOException {
+        if (watcher.stream == null || !watcher.channel.isOpen()) {
+            return;
+        }
+        SpectatorFeed feed = watcher.stream.feed;
+        SelectionKey key = watcher.channel.keyFor(selector);
+        try {
+            while (true) {
+                if (watcher.pending.hasRemaining()) {
+                    watcher.channel.write(watcher.pending);
+                    if (watcher.pending.hasRemaining()) {
+                        watcher.blocked = true;
+                        key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+                        return;
+                    }
+                }
+                long lag = feed.head() - watcher.position;
+                if (lag == 0) {
+                    key.interestOps(SelectionKey.OP_READ);
+                    return;
+                }
+                if (lag > feed.capacity() || lag > (long) feed.getRows() * feed.getCols()) {
+                    keyframe(watcher);
+                    continue;
+                }
+                int records = (int) Math.min(lag / SpectatorFeed.RECORD_SIZE,
+                        (BATCH_BYTES - 5) / SpectatorFeed.RECORD_SIZE);
+                ByteBuffer batch = watcher.batch;
+                batch.clear();
+                batch.put((byte) 'D').putInt(records);
+                if (!feed.copy(watcher.position, batch, records * SpectatorFeed.RECORD_SIZE)) {
+                    keyframe(watcher);
+                    continue;
+                }
+                watcher.position += (long) records * SpectatorFeed.RECORD_SIZE;
+                batch.flip();
+                watcher.pending = batch;
+            }
+        } catch (IOException e) {
+            close(watcher);
+        }
+    }
+
+    /**
+     * Fecha a ligação de um espectador e retira-o do seu jogo.
+     */
+    private void close(Watcher watcher) {
+        if (watcher.stream != null && watcher.stream.watchers.remove(watcher)) {
+            watching.decrementAndGet();
+        }
+        SelectionKey key = watcher.channel.keyFor(selector);
+        if (key != null) {
+            key.cancel();
+        }
+        try {
+            watcher.channel.close();
+        } catch (IOException e) {
+            // a ligação já está fechada
+        }
+    }
+
+    /**
+     * Fecha o servidor; a thread do servidor fecha as ligações e termina.
+     * Os jogos não são alterados aqui, porque esta thread não é a que joga: os fluxos ficam fechados
+     * ({@link SpectatorFeed#close()}) e cada jogo larga o seu no fim da jogada seguinte.
+     */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        for (Stream stream : streams.values()) {
+            stream.feed.close();
+        }
+        streams.clear();
+        server.close();
+        selector.wakeup();
+    }
+}
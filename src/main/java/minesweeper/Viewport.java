@@ -0,0 +1,140 @@
+package minesweeper;
+
+/**
+ * Janela de tamanho fixo sobre um {@link EndlessBoard}, que o apresenta como um {@link Engine} normal
+ * para poder ser jogado e desenhado pelo {@link BoardRenderer}.
+ * As coordenadas das jogadas são relativas ao canto superior esquerdo da janela, que pode ser deslocada.
+ */
+public class Viewport implements Engine {
+    private final EndlessBoard board; //Tabuleiro sem limites
+    private final int rows; //Linhas da janela
+    private final int cols; //Colunas da janela
+    private int top; //Linha do tabuleiro no topo da janela
+    private int left; //Coluna do tabuleiro à esquerda da janela
+
+    /**
+     * Cria uma janela centrada na célula (0, 0) do tabuleiro.
+     * @param board o tabuleiro sem limites
+     * @param rows as linhas da janela
+     * @param cols as colunas da janela
+     * @throws IllegalArgumentException se as dimensões não forem positivas
+     */
+    public Viewport(EndlessBoard board, int rows, int cols) {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Invalid viewport size: " + rows + "x" + cols);
+        }
+        this.board = board;
+        this.rows = rows;
+        this.cols = cols;
+        this.top = -rows / 2;
+        this.left = -cols / 2;
+    }
+
+    /**
+     * @return o tabuleiro sem limites
+     */
+    public EndlessBoard getBoard() {
+        return board;
+    }
+
+    /**
+     * @return a linha do tabuleiro no topo da janela
+     */
+    public int getTop() {
+        return top;
+    }
+
+    /**
+     * @return a coluna do tabuleiro à esquerda da janela
+     */
+    public int getLeft() {
+        return left;
+    }
+
+    /**
+     * Desloca a janela.
+     * @param rowsDown as linhas a descer (negativo para subir)
+     * @param colsRight as colunas para a direita (negativo para a esquerda)
+     */
+    public void move(int rowsDown, int colsRight) {
+        top += rowsDown;
+        left += colsRight;
+    }
+
+    /**
+     * Verifica se uma posição está dentro da janela.
+     * @return OK, INVALID_ROW ou INVALID_COLUMN
+     */
+    private MoveResult validate(int row, int col) {
+        if (row < 0 || row >= rows) {
+            return MoveResult.INVALID_ROW;
+        }
+        if (col < 0 || col >= cols) {
+            return MoveResult.INVALID_COLUMN;
+        }
+        return MoveResult.OK;
+    }
+
+    @Override
+    public MoveResult open(int row, int col) {
+        MoveResult valid = validate(row, col);
+        return valid != MoveResult.OK ? valid : board.open(top + row, left + col);
+    }
+
+    @Override
+    public MoveResult flag(int row, int col) {
+        MoveResult valid = validate(row, col);
+        return valid != MoveResult.OK ? valid : board.flag(top + row, left + col);
+    }
+
+    @Override
+    public MoveResult chord(int row, int col) {
+        MoveResult valid = validate(row, col);
+        return valid != MoveResult.OK ? valid : board.chord(top + row, left + col);
+    }
+
+    /**
+     * Abre a primeira célula fechada da janela, sem bomba e sem bandeira, vizinha de uma célula aberta.
+     * @return OK se uma célula foi aberta, NO_HINT se não há nenhuma na janela, GAME_OVER se o jogo acabou
+     */
+    @Override
+    public MoveResult hint() {
+        if (board.isGameOver()) {
+            return MoveResult.GAME_OVER;
+        }
+        for (int i = top; i < top + rows; i++) {
+            for (int j = left; j < left + cols; j++) {
+                if (board.symbolCode(i, j) == Game.HIDDEN_CODE && !board.hasBomb(i, j) && hasOpenNeighbour(i, j)) {
+                    return board.open(i, j);
+                }
+            }
+        }
+        return MoveResult.NO_HINT;
+    }
+
+    private boolean hasOpenNeighbour(int row, int col) {
+        for (int i = row - 1; i <= row + 1; i++) {
+            for (int j = col - 1; j <= col + 1; j++) {
+                if (board.isOpen(i, j)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public int symbolCode(int index) {
+        return board.symbolCode(top + index / cols, left + index % cols);
+    }
+}
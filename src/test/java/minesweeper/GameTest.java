@@ -0,0 +1,125 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compara a revelação do {@link Game} (por faixas) com uma pesquisa em largura simples, em tabuleiros pequenos e
+ * grandes, e verifica a lista e o intervalo das células reveladas.
+ */
+class GameTest {
+
+    /**
+     * Revela a partir de uma célula com uma pesquisa em largura, marcando as células abertas em {@code open}.
+     * @return a quantidade de células abertas
+     */
+    private static int referenceReveal(Game game, boolean[] open, int row, int col) {
+        int cols = game.getCols();
+        if (open[row * cols + col] || game.hasBomb(row, col)) {
+            return 0;
+        }
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        open[row * cols + col] = true;
+        queue.add(row * cols + col);
+        int opened = 0;
+        while (!queue.isEmpty()) {
+            int index = queue.poll();
+            opened++;
+            int r = index / cols;
+            int c = index % cols;
+            if (game.countBombs(r, c) > 0) {
+                continue;
+            }
+            for (int i = Math.max(r - 1, 0); i <= Math.min(r + 1, game.getRows() - 1); i++) {
+                for (int j = Math.max(c - 1, 0); j <= Math.min(c + 1, cols - 1); j++) {
+                    int neighbour = i * cols + j;
+                    if (!open[neighbour] && !game.hasBomb(i, j)) {
+                        open[neighbour] = true;
+                        queue.add(neighbour);
+                    }
+                }
+            }
+        }
+        return opened;
+    }
+
+    /**
+     * Revela células ao acaso no mesmo tabuleiro e compara cada revelação com a referência.
+     */
+    private static void assertRevealsMatch(int rows, int cols, int bombs, long seed, int reveals) {
+        Game game = new Game(rows, cols, bombs);
+        game.initializeGame();
+        game.fillBombs(seed);
+        boolean[] open = new boolean[rows * cols];
+        Random random = new Random(seed);
+        for (int k = 0; k < reveals; k++) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(cols);
+            int expected = referenceReveal(game, open, row, col);
+            int count = game.revealAround(row, col);
+            assertEquals(expected, count);
+            assertEquals(count, game.getRevealedCount());
+            int[] revealed = game.getRevealedCells();
+            boolean[] seen = new boolean[rows * cols];
+            for (int i = 0; i < count; i++) {
+                int index = revealed[i];
+                assertTrue(open[index], "opened a cell the reference did not reach");
+                assertTrue(!seen[index], "cell revealed twice");
+                seen[index] = true;
+                assertTrue(index >= game.getRevealedFrom() && index < game.getRevealedTo());
+            }
+        }
+        for (int index = 0; index < rows * cols; index++) {
+            assertEquals(open[index], game.symbolCode(index) <= 8, "cell " + index);
+        }
+    }
+
+    @Test
+    void revealMatchesBreadthFirstSearchOnSmallBoards() {
+        Random random = new Random(1);
+        for (int t = 0; t < 300; t++) {
+            int rows = 1 + random.nextInt(40);
+            int cols = 1 + random.nextInt(40);
+            int bombs = random.nextInt(rows * cols / 4 + 1);
+            assertRevealsMatch(rows, cols, bombs, t, 30);
+        }
+    }
+
+    @Test
+    void revealMatchesBreadthFirstSearchOnLargeBoards() {
+        assertRevealsMatch(400, 400, 0, 1, 3);
+        assertRevealsMatch(400, 400, 400 * 400 / 50, 2, 200);
+        assertRevealsMatch(300, 500, 300 * 500 / 8, 3, 500);
+    }
+
+    @Test
+    void chordCountsTheCellsOfEveryNeighbour() {
+        Random random = new Random(2);
+        int chords = 0;
+        for (int t = 0; t < 500; t++) {
+            Game game = new Game(16, 30, 60);
+            game.initializeGame();
+            game.fillBombs(t);
+            game.open(8, 15);
+            for (int i = 0; i < 480 && !game.isGameOver(); i++) {
+                int row = i / 30;
+                int col = i % 30;
+                if (game.hasBomb(row, col) && game.symbolCode(i) == Game.HIDDEN_CODE && random.nextBoolean()) {
+                    game.flag(row, col);
+                }
+            }
+            for (int i = 0; i < 480 && !game.isGameOver(); i++) {
+                int before = game.getPositionsWithoutBombs();
+                if (game.chord(i / 30, i % 30) == MoveResult.OK) {
+                    chords++;
+                    assertEquals(before - game.getPositionsWithoutBombs(), game.getRevealedCount());
+                }
+            }
+        }
+        assertTrue(chords > 0);
+    }
+}
@@ -0,0 +1,76 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifica que desfazer e refazer jogadas com o {@link History} repõe exatamente cada estado do jogo.
+ */
+class HistoryTest {
+
+    private static String snapshot(Game game) {
+        return Arrays.toString(game.getCells()) + " " + game.getPositionsWithoutBombs() + " " + game.getTotalFlags()
+                + " " + game.getGuessedBombs() + " " + game.getWrongFlags() + " " + game.getExplodedCell()
+                + " " + game.isFirstMove() + " " + game.getState();
+    }
+
+    @Test
+    void undoAndRedoRoundTripEveryMove() {
+        Random random = new Random(1);
+        for (int t = 0; t < 200; t++) {
+            int rows = 5 + random.nextInt(20);
+            int cols = 5 + random.nextInt(20);
+            Game game = new Game(rows, cols, rows * cols / 6);
+            game.initializeGame();
+            game.fillBombs(t);
+            game.setHistory(new History());
+            List<String> states = new ArrayList<>();
+            states.add(snapshot(game));
+            while (!game.isGameOver()) {
+                ReplayTest.playRandomly(game, random, 1);
+                if (game.getHistory().getUndoCount() == states.size()) {
+                    states.add(snapshot(game));
+                }
+            }
+            for (int k = states.size() - 2; k >= 0; k--) {
+                assertEquals(MoveResult.OK, game.undo());
+                assertEquals(states.get(k), snapshot(game));
+            }
+            assertEquals(MoveResult.NOTHING_TO_UNDO, game.undo());
+            for (int k = 1; k < states.size(); k++) {
+                game.redo();
+                assertEquals(states.get(k), snapshot(game));
+            }
+            assertEquals(MoveResult.NOTHING_TO_REDO, game.redo());
+        }
+    }
+
+    @Test
+    void redoingALossDoesNotFinishTheGameAgain() {
+        Game game = new Game(9, 9, 10);
+        game.initializeGame();
+        game.fillBombs(5);
+        game.setHistory(new History());
+        int[] changes = {0};
+        game.addListener((g, previous, state) -> changes[0]++);
+        game.open(4, 4);
+        int bomb = 0;
+        while (!game.hasBomb(bomb / 9, bomb % 9)) {
+            bomb++;
+        }
+        long lost = Metrics.get().getGamesLost();
+        assertEquals(MoveResult.LOSE, game.open(bomb / 9, bomb % 9));
+        for (int k = 0; k < 3; k++) {
+            game.undo();
+            assertEquals(GameState.PLAYING, game.getState());
+            assertEquals(MoveResult.LOSE, game.redo());
+        }
+        assertEquals(2, changes[0]); //READY -> PLAYING e PLAYING -> LOST, só quando as jogadas foram feitas
+        assertEquals(lost + 1, Metrics.get().getGamesLost());
+    }
+}
@@ -0,0 +1,95 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verifica que a {@link Leaderboard} guardada num ficheiro é reaberta com os mesmos índices, e que ficheiros
+ * estragados são recusados.
+ */
+class LeaderboardTest {
+    @TempDir
+    Path directory;
+
+    private static List<String> names(List<Leaderboard.Entry> entries) {
+        return entries.stream().map(Leaderboard.Entry::getName).collect(Collectors.toList());
+    }
+
+    @Test
+    void reopenedLeaderboardKeepsTheBestAndLastWins() throws IOException {
+        Path file = directory.resolve("leaderboard.dat");
+        List<String> best;
+        List<String> last;
+        try (Leaderboard leaderboard = new Leaderboard(file)) {
+            for (int i = 0; i < 30; i++) {
+                leaderboard.add("player " + i, 9, 9, 10, (i * 7919L) % 1000);
+                leaderboard.add("expert " + i, 16, 30, 99, 100_000 - i);
+            }
+            best = names(leaderboard.best(9, 9, 10));
+            last = names(leaderboard.lastWins());
+        }
+        try (Leaderboard leaderboard = new Leaderboard(file)) {
+            assertEquals(60, leaderboard.size());
+            assertEquals(best, names(leaderboard.best(9, 9, 10)));
+            assertEquals(last, names(leaderboard.lastWins()));
+            assertEquals(Leaderboard.TOP, leaderboard.best(16, 30, 99).size());
+            assertEquals("expert 29", leaderboard.best(16, 30, 99).get(0).getName());
+        }
+    }
+
+    @Test
+    void longNamesAreCutWithoutSplittingCharacters() throws IOException {
+        Path file = directory.resolve("leaderboard.dat");
+        String name = "é".repeat(40);
+        try (Leaderboard leaderboard = new Leaderboard(file)) {
+            leaderboard.add(name, 9, 9, 10, 1000);
+        }
+        try (Leaderboard leaderboard = new Leaderboard(file)) {
+            String stored = leaderboard.lastWins().get(0).getName();
+            assertEquals(name.substring(0, stored.length()), stored);
+        }
+    }
+
+    @Test
+    void incompleteLastRecordIsDiscarded() throws IOException {
+        Path file = directory.resolve("leaderboard.dat");
+        try (Leaderboard leaderboard = new Leaderboard(file)) {
+            leaderboard.add("ana", 9, 9, 10, 1000);
+            leaderboard.add("bob", 9, 9, 10, 2000);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 10));
+        try (Leaderboard leaderboard = new Leaderboard(file)) {
+            assertEquals(1, leaderboard.size());
+            assertEquals("ana", leaderboard.lastWins().get(0).getName());
+        }
+    }
+
+    @Test
+    void corruptFilesAreRejected() throws IOException {
+        Path file = directory.resolve("leaderboard.dat");
+        try (Leaderboard leaderboard = new Leaderboard(file)) {
+            leaderboard.add("ana", 9, 9, 10, 1000);
+        }
+        byte[] bytes = Files.readAllBytes(file);
+        for (byte length : new byte[] {-5, 100}) {
+            byte[] corrupt = bytes.clone();
+            corrupt[Leaderboard.HEADER_SIZE + 28] = length; //tamanho do nome
+            Files.write(file, corrupt);
+            assertThrows(IOException.class, () -> new Leaderboard(file));
+        }
+        byte[] corrupt = bytes.clone();
+        corrupt[0] ^= 1; //magic
+        Files.write(file, corrupt);
+        assertThrows(IOException.class, () -> new Leaderboard(file));
+    }
+}
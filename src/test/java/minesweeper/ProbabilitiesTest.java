@@ -0,0 +1,143 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compara as {@link Probabilities} com a enumeração de todas as maneiras de pôr as bombas nas células fechadas
+ * de tabuleiros pequenos.
+ */
+class ProbabilitiesTest {
+    private static final int MAX_CLOSED = 14; //Células fechadas no máximo para a enumeração
+
+    /**
+     * Conta, para cada célula fechada, as configurações de bombas compatíveis com os números e o total de bombas
+     * em que a célula tem bomba.
+     * @return a probabilidade de bomba de cada célula, ou -1 nas células abertas
+     */
+    private static double[] enumerate(Game game) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        int size = rows * cols;
+        int[] closed = new int[size];
+        int[] bit = new int[size];
+        int count = 0;
+        int minesLeft = game.getAmountBombs();
+        for (int index = 0; index < size; index++) {
+            int code = game.symbolCode(index);
+            bit[index] = -1;
+            if (code == Game.HIDDEN_CODE || code == Game.FLAG_CODE) {
+                bit[index] = count;
+                closed[count++] = index;
+            } else if (code == Game.BOMB_CODE || code == Game.EXPLODED_CODE) {
+                minesLeft--;
+            }
+        }
+        long total = 0;
+        long[] withMine = new long[count];
+        for (int mask = 0; mask < 1 << count; mask++) {
+            if (Integer.bitCount(mask) != minesLeft || !consistent(game, bit, mask)) {
+                continue;
+            }
+            total++;
+            for (int k = 0; k < count; k++) {
+                if ((mask >>> k & 1) != 0) {
+                    withMine[k]++;
+                }
+            }
+        }
+        double[] probability = new double[size];
+        Arrays.fill(probability, -1);
+        for (int k = 0; k < count; k++) {
+            probability[closed[k]] = (double) withMine[k] / total;
+        }
+        return probability;
+    }
+
+    /**
+     * @return verdadeiro se cada número aberto tem à volta exatamente as bombas da configuração
+     */
+    private static boolean consistent(Game game, int[] bit, int mask) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        for (int index = 0; index < rows * cols; index++) {
+            int code = game.symbolCode(index);
+            if (code > 8) {
+                continue;
+            }
+            int row = index / cols;
+            int col = index % cols;
+            int mines = 0;
+            for (int i = Math.max(row - 1, 0); i <= Math.min(row + 1, rows - 1); i++) {
+                for (int j = Math.max(col - 1, 0); j <= Math.min(col + 1, cols - 1); j++) {
+                    int neighbour = i * cols + j;
+                    int symbol = game.symbolCode(neighbour);
+                    if (symbol == Game.BOMB_CODE || symbol == Game.EXPLODED_CODE
+                            || (bit[neighbour] >= 0 && (mask >>> bit[neighbour] & 1) != 0)) {
+                        mines++;
+                    }
+                }
+            }
+            if (mines != code) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Test
+    void probabilitiesMatchBruteForce() {
+        Random random = new Random(1);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        int checked = 0;
+        for (int t = 0; t < 400; t++) {
+            int rows = 3 + random.nextInt(4);
+            int cols = 3 + random.nextInt(4);
+            Game game = new Game(rows, cols, 2 + random.nextInt(rows * cols / 3));
+            game.initializeGame();
+            game.fillBombs(t);
+            //Abre células sem bomba até sobrarem poucas fechadas; às vezes põe uma bandeira, que conta como fechada
+            while (!game.isGameOver()) {
+                int index = random.nextInt(rows * cols);
+                if (game.symbolCode(index) != Game.HIDDEN_CODE) {
+                    continue;
+                }
+                if (game.hasBomb(index / cols, index % cols)) {
+                    if (random.nextInt(4) == 0) {
+                        game.flag(index / cols, index % cols);
+                    }
+                    continue;
+                }
+                game.open(index / cols, index % cols);
+                int closed = 0;
+                for (int i = 0; i < rows * cols; i++) {
+                    closed += game.symbolCode(i) == Game.HIDDEN_CODE || game.symbolCode(i) == Game.FLAG_CODE ? 1 : 0;
+                }
+                if (closed <= MAX_CLOSED && random.nextInt(3) == 0) {
+                    break;
+                }
+            }
+            if (game.isGameOver()) {
+                continue;
+            }
+            double[] expected = enumerate(game);
+            Probabilities probabilities = new Probabilities(game, pool);
+            assertTrue(probabilities.isExact());
+            int safest = probabilities.getSafest();
+            for (int index = 0; index < expected.length; index++) {
+                assertEquals(expected[index], probabilities.get(index), 1e-9, "cell " + index + " of game " + t);
+                if (expected[index] >= 0 && game.symbolCode(index) == Game.HIDDEN_CODE) {
+                    assertTrue(expected[safest] <= expected[index] + 1e-9);
+                }
+            }
+            checked++;
+        }
+        pool.shutdown();
+        assertTrue(checked > 100);
+    }
+}
@@ -0,0 +1,107 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Verifica que o {@link Replay} de um {@link Journal} chega exatamente ao estado final do jogo original.
+ */
+class ReplayTest {
+
+    /**
+     * Joga jogadas aleatórias (aberturas, bandeiras, /chord e dicas) até o jogo acabar ou até ao limite.
+     */
+    static void playRandomly(Game game, Random random, int maxMoves) {
+        int rows = game.getRows();
+        int cols = game.getCols();
+        for (int move = 0; move < maxMoves && !game.isGameOver(); move++) {
+            int row = random.nextInt(rows);
+            int col = random.nextInt(cols);
+            int kind = random.nextInt(10);
+            if (kind < 6) {
+                game.open(row, col);
+            } else if (kind < 8) {
+                game.flag(row, col);
+            } else if (kind < 9) {
+                game.chord(row, col);
+            } else {
+                game.hint();
+            }
+        }
+    }
+
+    private static byte[] playWithJournal(Game game, Random random) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Journal journal = new Journal(Channels.newChannel(bytes), game);
+        game.setJournal(journal);
+        playRandomly(game, random, 200);
+        journal.close();
+        return bytes.toByteArray();
+    }
+
+    private static void assertSameGame(Game expected, Game actual) {
+        assertArrayEquals(expected.getCells(), actual.getCells());
+        assertEquals(expected.getState(), actual.getState());
+        assertEquals(expected.getPositionsWithoutBombs(), actual.getPositionsWithoutBombs());
+        assertEquals(expected.getTotalFlags(), actual.getTotalFlags());
+        assertEquals(expected.getGuessedBombs(), actual.getGuessedBombs());
+        assertEquals(expected.getWrongFlags(), actual.getWrongFlags());
+        assertEquals(expected.getExplodedCell(), actual.getExplodedCell());
+    }
+
+    @Test
+    void replayReachesTheFinalState() throws IOException {
+        Random random = new Random(1);
+        for (int t = 0; t < 200; t++) {
+            int rows = 5 + random.nextInt(20);
+            int cols = 5 + random.nextInt(20);
+            Game game = new Game(rows, cols, rows * cols / 6);
+            game.initializeGame();
+            game.fillBombs(t);
+            byte[] journal = playWithJournal(game, random);
+
+            Replay replay = new Replay(ByteBuffer.wrap(journal));
+            replay.replayAll();
+            assertSameGame(game, replay.getGame());
+        }
+    }
+
+    @Test
+    void replayKeepsTheGuaranteedStartCell() throws IOException {
+        Random random = new Random(2);
+        for (int t = 0; t < 100; t++) {
+            Game game = new Game(16, 30, 99);
+            game.initializeGame();
+            game.fillBombs(t, random.nextInt(16), random.nextInt(30));
+            byte[] journal = playWithJournal(game, random);
+
+            Replay replay = new Replay(ByteBuffer.wrap(journal));
+            replay.replayAll();
+            assertEquals(game.getStartCell(), replay.getGame().getStartCell());
+            assertSameGame(game, replay.getGame());
+        }
+    }
+
+    @Test
+    void replayRejectsCorruptJournals() throws IOException {
+        Game game = new Game(9, 9, 10);
+        game.initializeGame();
+        game.fillBombs(3);
+        byte[] journal = playWithJournal(game, new Random(3));
+
+        byte[] badMagic = journal.clone();
+        badMagic[0] ^= 1;
+        assertThrows(IOException.class, () -> new Replay(ByteBuffer.wrap(badMagic)));
+        byte[] header = new byte[6];
+        System.arraycopy(journal, 0, header, 0, header.length);
+        assertThrows(IOException.class, () -> new Replay(ByteBuffer.wrap(header)));
+    }
+}
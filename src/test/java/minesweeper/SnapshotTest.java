@@ -0,0 +1,99 @@
+package minesweeper;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Verifica que um jogo guardado com {@link Snapshot} é carregado igual, e que ficheiros estragados são recusados.
+ */
+class SnapshotTest {
+    @TempDir
+    Path directory;
+
+    private Path saved() throws IOException {
+        Game game = new Game(9, 9, 10);
+        game.initializeGame();
+        game.fillBombs(3);
+        game.setName("ana");
+        game.open(4, 4);
+        Path file = directory.resolve("game.save");
+        Snapshot.save(game, file);
+        return file;
+    }
+
+    @Test
+    void loadRestoresTheSavedGame() throws IOException {
+        Random random = new Random(1);
+        for (int t = 0; t < 100; t++) {
+            Game game = new Game(5 + random.nextInt(30), 5 + random.nextInt(30), 10);
+            game.initializeGame();
+            game.fillBombs(t);
+            game.setName("player " + t);
+            ReplayTest.playRandomly(game, random, random.nextInt(40));
+            if (t % 10 == 0) {
+                game.setIsGameOver(true);
+            }
+            Path file = directory.resolve("game" + t + ".save");
+            Snapshot.save(game, file);
+
+            Game loaded = Snapshot.load(file);
+            assertArrayEquals(game.getCells(), loaded.getCells());
+            assertEquals(game.getState(), loaded.getState());
+            assertEquals(game.getName(), loaded.getName());
+            assertEquals(game.getSeed(), loaded.getSeed());
+            assertEquals(game.getStartCell(), loaded.getStartCell());
+            assertEquals(game.isFirstMove(), loaded.isFirstMove());
+            assertEquals(game.getPositionsWithoutBombs(), loaded.getPositionsWithoutBombs());
+            assertEquals(game.getTotalFlags(), loaded.getTotalFlags());
+            assertEquals(game.getGuessedBombs(), loaded.getGuessedBombs());
+            assertEquals(game.getWrongFlags(), loaded.getWrongFlags());
+            assertEquals(game.getExplodedCell(), loaded.getExplodedCell());
+        }
+    }
+
+    /**
+     * Altera o ficheiro guardado e verifica que carregá-lo falha com IOException.
+     */
+    private void assertCorrupt(int offset, ByteBuffer value) throws IOException {
+        byte[] bytes = Files.readAllBytes(saved());
+        value.flip();
+        value.get(bytes, offset, value.remaining());
+        Path file = directory.resolve("corrupt.save");
+        Files.write(file, bytes);
+        assertThrows(IOException.class, () -> Snapshot.load(file));
+    }
+
+    @Test
+    void loadRejectsCorruptHeaders() throws IOException {
+        assertCorrupt(0, ByteBuffer.allocate(4).putInt(0)); //magic
+        assertCorrupt(4, ByteBuffer.allocate(4).putInt(99)); //versão
+        assertCorrupt(8, ByteBuffer.allocate(4).putInt(-9)); //linhas
+        assertCorrupt(12, ByteBuffer.allocate(4).putInt(0)); //colunas
+        assertCorrupt(8, ByteBuffer.allocate(4).putInt(10)); //linhas que não correspondem ao tamanho do ficheiro
+        assertCorrupt(16, ByteBuffer.allocate(4).putInt(100)); //bombas
+        assertCorrupt(32, ByteBuffer.allocate(4).putInt(81)); //célula que rebentou
+        assertCorrupt(57, ByteBuffer.allocate(1).put((byte) 9)); //estado
+        assertCorrupt(58, ByteBuffer.allocate(2).putShort((short) -1)); //tamanho do nome
+        assertCorrupt(58, ByteBuffer.allocate(2).putShort((short) 500));
+    }
+
+    @Test
+    void loadRejectsTruncatedFiles() throws IOException {
+        byte[] bytes = Files.readAllBytes(saved());
+        Path file = directory.resolve("truncated.save");
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> Snapshot.load(file));
+        Files.write(file, Arrays.copyOf(bytes, 20));
+        assertThrows(IOException.class, () -> Snapshot.load(file));
+    }
+}